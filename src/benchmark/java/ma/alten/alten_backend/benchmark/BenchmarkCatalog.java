@@ -0,0 +1,128 @@
+package ma.alten.alten_backend.benchmark;
+
+import ma.alten.alten_backend.AltenBackendApiApplication;
+import ma.alten.alten_backend.enumeration.InventoryStatus;
+import ma.alten.alten_backend.repository.ProductRepository;
+import ma.alten.alten_backend.service.ProductCodeAllocator;
+import ma.alten.alten_backend.service.ProductService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Application context running against an in-memory H2 database seeded with {@code catalogSize}
+ * products. Caches are disabled so that every call reaches the database.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkCatalog {
+
+    static final String[] CATEGORIES = {"Accessories", "Clothing", "Electronics", "Fitness", "Furniture", "Garden", "Kitchen", "Toys"};
+
+    private static final int SEED_BATCH_SIZE = 10_000;
+    private static final String INSERT_PRODUCT = "INSERT INTO product (id, code, name, description, category_id, price, quantity, "
+            + "internal_reference, shell_id, inventory_status, rating, deleted, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Param({"10000"})
+    public int catalogSize;
+
+    ConfigurableApplicationContext context;
+    ProductService productService;
+    ProductRepository productRepository;
+    ProductCodeAllocator productCodeAllocator;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        context = new SpringApplicationBuilder(AltenBackendApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(arguments(applicationProperties("benchmark")));
+        productService = context.getBean(ProductService.class);
+        productRepository = context.getBean(ProductRepository.class);
+        productCodeAllocator = context.getBean(ProductCodeAllocator.class);
+        seed(context.getBean(JdbcTemplate.class), catalogSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    /**
+     * Application settings for an in-memory H2 database named {@code database}, every cache and the
+     * admission limits disabled.
+     */
+    static String[] applicationProperties(String database) throws IOException {
+        return new String[]{
+                "spring.datasource.url=jdbc:h2:mem:" + database + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.datasource.driver-class-name=org.h2.Driver",
+                "spring.jpa.database=H2",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "spring.cache.type=none",
+                "spring.devtools.restart.enabled=false",
+                "product.listing-cache.enabled=false",
+                "product.admission.enabled=false",
+                "product.search.engine=memory",
+                "product.images.storage-path=" + Files.createTempDirectory("benchmark-images"),
+                "logging.level.root=WARN"};
+    }
+
+    /**
+     * Command line arguments setting {@code properties}: unlike default properties they take
+     * precedence over {@code application.yml}.
+     */
+    static String[] arguments(String... properties) {
+        return Arrays.stream(properties).map(property -> "--" + property).toArray(String[]::new);
+    }
+
+    /**
+     * Deterministic catalog: categories spread evenly, prices between 1 and 1000, one product in
+     * twenty archived and {@code updated_at} decreasing with the id.
+     */
+    static void seed(JdbcTemplate jdbcTemplate, int catalogSize) {
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            jdbcTemplate.update("INSERT INTO category (id, name, normalized_name) VALUES (?, ?, ?)",
+                    i + 1, CATEGORIES[i], CATEGORIES[i].toLowerCase(Locale.ROOT));
+        }
+        jdbcTemplate.execute("ALTER SEQUENCE category_seq RESTART WITH " + (CATEGORIES.length + 1));
+        Random random = new Random(42);
+        Instant now = Instant.now();
+        List<Object[]> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        for (int i = 1; i <= catalogSize; i++) {
+            int quantity = random.nextInt(200);
+            InventoryStatus status = quantity == 0 ? InventoryStatus.OUTOFSTOCK : quantity < 10 ? InventoryStatus.LOWSTOCK : InventoryStatus.INSTOCK;
+            Timestamp updatedAt = Timestamp.from(now.minusSeconds(i));
+            batch.add(new Object[]{(long) i, String.format("SEED%07d", i), "Product " + i, "Description of product " + i,
+                    i % CATEGORIES.length + 1, Math.round((1 + random.nextDouble() * 999) * 100) / 100d, quantity,
+                    "REF-" + i, (long) random.nextInt(100), status.name(), Math.round(random.nextDouble() * 50) / 10d,
+                    i % 20 == 0, updatedAt, updatedAt});
+            if (batch.size() == SEED_BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(INSERT_PRODUCT, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_PRODUCT, batch);
+        }
+        jdbcTemplate.execute("ALTER SEQUENCE product_seq RESTART WITH " + (catalogSize + 1));
+    }
+
+}
@@ -0,0 +1,171 @@
+package ma.alten.alten_backend.benchmark;
+
+import ma.alten.alten_backend.AltenBackendApiApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * One client floods the API with large unfiltered listings while another reads products by id at a
+ * modest pace, once without admission limits and once with them. Prints the latency percentiles of
+ * the well-behaved client and what happened to the flood; with the limits on the reads by id keep a
+ * bounded p99 while the listings are answered 429 or 503.
+ * <p>
+ * Tunable with {@code -Dbenchmark.duration} (seconds), {@code -Dbenchmark.flood-concurrency} and
+ * {@code -Dbenchmark.reader-concurrency}.
+ */
+class OverloadLoadTest {
+
+    private static final int CATALOG_SIZE = 50_000;
+    private static final String FLOOD_PATH = "/api/products?size=500";
+
+    @Test
+    @Tag("benchmark")
+    void compareWithAndWithoutAdmissionLimits() throws Exception {
+        Duration duration = Duration.ofSeconds(Integer.getInteger("benchmark.duration", 20));
+        int floodConcurrency = Integer.getInteger("benchmark.flood-concurrency", 200);
+        int readerConcurrency = Integer.getInteger("benchmark.reader-concurrency", 8);
+        System.out.printf("overload load test: %s per run, %d flooding, %d reading by id%n", duration, floodConcurrency, readerConcurrency);
+
+        OverloadResult unlimited = run(false, duration, floodConcurrency, readerConcurrency);
+        OverloadResult limited = run(true, duration, floodConcurrency, readerConcurrency);
+
+        System.out.println("admission  reads   p50(ms)   p95(ms)   p99(ms)   max(ms)   reads rejected   flood ok   flood 429   flood 503");
+        System.out.println(unlimited.format("off"));
+        System.out.println(limited.format("on"));
+        assertEquals(0, unlimited.failures());
+        assertEquals(0, limited.failures());
+        assertTrue(limited.floodTooManyRequests() + limited.floodUnavailable() > 0, "the flood should have been limited");
+    }
+
+    private OverloadResult run(boolean admission, Duration duration, int floodConcurrency, int readerConcurrency) throws Exception {
+        String[] properties = Stream.concat(
+                Arrays.stream(BenchmarkCatalog.applicationProperties(admission ? "admission" : "unlimited")),
+                Stream.of("server.port=0",
+                        "product.admission.enabled=" + admission,
+                        "product.scheduling.enabled=false",
+                        "server.tomcat.threads.max=" + (floodConcurrency + readerConcurrency),
+                        "spring.datasource.hikari.maximum-pool-size=10"))
+                .toArray(String[]::new);
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(AltenBackendApiApplication.class)
+                .run(BenchmarkCatalog.arguments(properties))) {
+            BenchmarkCatalog.seed(context.getBean(JdbcTemplate.class), CATALOG_SIZE);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            return load(HttpClient.newHttpClient(), port, duration, floodConcurrency, readerConcurrency);
+        }
+    }
+
+    private OverloadResult load(HttpClient client, int port, Duration duration, int floodConcurrency, int readerConcurrency)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicInteger failures = new AtomicInteger();
+        AtomicInteger readsRejected = new AtomicInteger();
+        AtomicInteger[] floodStatuses = {new AtomicInteger(), new AtomicInteger(), new AtomicInteger()};
+        List<List<Long>> readLatencies = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(floodConcurrency + readerConcurrency);
+        for (int i = 0; i < floodConcurrency; i++) {
+            executor.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    int status = send(client, port, FLOOD_PATH, "flood");
+                    switch (status) {
+                        case 200 -> floodStatuses[0].incrementAndGet();
+                        case 429 -> floodStatuses[1].incrementAndGet();
+                        case 503 -> floodStatuses[2].incrementAndGet();
+                        default -> failures.incrementAndGet();
+                    }
+                }
+            });
+        }
+        for (int i = 0; i < readerConcurrency; i++) {
+            List<Long> latencies = new ArrayList<>();
+            readLatencies.add(latencies);
+            int reader = i;
+            executor.submit(() -> {
+                int id = reader;
+                while (System.nanoTime() < deadline) {
+                    id = id % CATALOG_SIZE + 1;
+                    long sent = System.nanoTime();
+                    int status = send(client, port, "/api/products/" + id, "reader-" + reader);
+                    latencies.add(System.nanoTime() - sent);
+                    if (status == 429 || status == 503) {
+                        readsRejected.incrementAndGet();
+                    } else if (status != 200) {
+                        failures.incrementAndGet();
+                    }
+                    sleep(Duration.ofMillis(50));
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS);
+        long[] latencies = readLatencies.stream().flatMap(List::stream).mapToLong(Long::longValue).sorted().toArray();
+        return new OverloadResult(latencies.length, percentile(latencies, 0.50), percentile(latencies, 0.95), percentile(latencies, 0.99),
+                latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1_000_000d, readsRejected.get(),
+                floodStatuses[0].get(), floodStatuses[1].get(), floodStatuses[2].get(), failures.get());
+    }
+
+    /**
+     * @return the response status, -1 when no response came back
+     */
+    private static int send(HttpClient client, int port, String path, String apiKey) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("X-Api-Key", apiKey)
+                .GET()
+                .build();
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static void sleep(Duration pause) {
+        try {
+            Thread.sleep(pause.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static double percentile(long[] sortedLatencies, double percentile) {
+        if (sortedLatencies.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(index, 0)] / 1_000_000d;
+    }
+
+    private record OverloadResult(int reads, double p50, double p95, double p99, double max, int readsRejected,
+                                  int floodOk, int floodTooManyRequests, int floodUnavailable, int failures) {
+
+        String format(String admission) {
+            return String.format("%-9s %6d %9.1f %9.1f %9.1f %9.1f %16d %10d %11d %11d", admission, reads, p50, p95, p99, max,
+                    readsRejected, floodOk, floodTooManyRequests, floodUnavailable);
+        }
+
+    }
+
+}
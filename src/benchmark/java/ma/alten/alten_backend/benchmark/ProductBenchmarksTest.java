@@ -0,0 +1,38 @@
+package ma.alten.alten_backend.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Entry point of the JMH benchmarks, only run with the {@code benchmark} Maven profile.
+ * {@code -Dbenchmark.catalog-sizes} lists the catalog sizes to seed, {@code -Dbenchmark.result}
+ * where the JSON results are written.
+ */
+class ProductBenchmarksTest {
+
+    @Test
+    @Tag("benchmark")
+    void runBenchmarks() throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(getClass().getPackageName() + "\\..*Benchmark")
+                .param("catalogSize", System.getProperty("benchmark.catalog-sizes", "10000").split(","))
+                .resultFormat(ResultFormatType.JSON)
+                .result(System.getProperty("benchmark.result", "target/jmh-result.json"))
+                .build();
+
+        Collection<RunResult> results = new Runner(options).run();
+
+        assertFalse(results.isEmpty());
+    }
+
+}
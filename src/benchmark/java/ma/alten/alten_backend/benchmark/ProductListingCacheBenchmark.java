@@ -0,0 +1,90 @@
+package ma.alten.alten_backend.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ma.alten.alten_backend.dto.ProductDto;
+import ma.alten.alten_backend.dto.ProductFilter;
+import ma.alten.alten_backend.service.ProductListingCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Throughput of a skewed (Zipf-like) stream of category pages against a loader that costs about a
+ * millisecond, with and without the listing cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductListingCacheBenchmark {
+
+    private static final int CATEGORIES = 200;
+    private static final double EXPONENT = 1.1;
+    private static final Supplier<Page<ProductDto>> LOADER = () -> {
+        try {
+            Thread.sleep(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return new PageImpl<>(List.of(new ProductDto()));
+    };
+
+    @Param({"true", "false"})
+    public boolean cacheEnabled;
+
+    private ProductListingCache productListingCache;
+    private ProductFilter[] filters;
+    private double[] cumulative;
+
+    @Setup
+    public void setUp() {
+        productListingCache = new ProductListingCache(cacheEnabled, 1000, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        filters = new ProductFilter[CATEGORIES];
+        cumulative = new double[CATEGORIES];
+        double sum = 0;
+        for (int i = 0; i < CATEGORIES; i++) {
+            filters[i] = new ProductFilter(null, null, "category-" + i, null, null);
+            sum += 1 / Math.pow(i + 1, EXPONENT);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < CATEGORIES; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Keys {
+
+        private final Random random = new Random(42);
+
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Page<ProductDto> skewedCategoryPages(Keys keys) {
+        int index = Arrays.binarySearch(cumulative, keys.random.nextDouble());
+        int category = index >= 0 ? index : Math.min(-index - 1, CATEGORIES - 1);
+        return productListingCache.get(filters[category], 0, 20, true, LOADER);
+    }
+
+}
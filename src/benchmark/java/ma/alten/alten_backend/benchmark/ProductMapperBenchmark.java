@@ -0,0 +1,97 @@
+package ma.alten.alten_backend.benchmark;
+
+import ma.alten.alten_backend.dto.ProductDto;
+import ma.alten.alten_backend.enumeration.InventoryStatus;
+import ma.alten.alten_backend.mapper.ProductMapper;
+import ma.alten.alten_backend.model.Category;
+import ma.alten.alten_backend.model.Product;
+import ma.alten.alten_backend.repository.CategoryRepository;
+import ma.alten.alten_backend.service.CategoryDictionary;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cost of the MapStruct conversions done for every listed or saved product, category names
+ * resolved from a loaded {@link CategoryDictionary}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductMapperBenchmark {
+
+    private ProductMapper productMapper;
+    private Product product;
+    private ProductDto productDto;
+    private List<Product> page;
+
+    @Setup
+    public void setUp() {
+        CategoryRepository categoryRepository = mock(CategoryRepository.class);
+        when(categoryRepository.findAll()).thenReturn(IntStream.range(0, BenchmarkCatalog.CATEGORIES.length)
+                .mapToObj(i -> new Category(i + 1, BenchmarkCatalog.CATEGORIES[i], CategoryDictionary.normalize(BenchmarkCatalog.CATEGORIES[i])))
+                .toList());
+        CategoryDictionary categoryDictionary = new CategoryDictionary(categoryRepository, Duration.ofMinutes(1), 1000);
+        categoryDictionary.load();
+        productMapper = Mappers.getMapper(ProductMapper.class);
+        productMapper.setCategoryDictionary(categoryDictionary);
+        page = IntStream.rangeClosed(1, 20).mapToObj(ProductMapperBenchmark::product).toList();
+        product = page.get(0);
+        productDto = productMapper.toProductDto(product);
+    }
+
+    @Benchmark
+    public ProductDto toProductDto() {
+        return productMapper.toProductDto(product);
+    }
+
+    @Benchmark
+    public Product toProduct() {
+        return productMapper.toProduct(productDto);
+    }
+
+    @Benchmark
+    public List<ProductDto> toProductDtosPage() {
+        return productMapper.toProductDtos(page);
+    }
+
+    private static Product product(int id) {
+        Product product = new Product();
+        product.setId((long) id);
+        product.setCode(String.format("PRODUCT%03d", id));
+        product.setName("Product " + id);
+        product.setDescription("Description of product " + id);
+        product.setCategoryId(id % BenchmarkCatalog.CATEGORIES.length + 1);
+        product.setPrice(19.99);
+        product.setQuantity(42);
+        product.setInternalReference("REF-" + id);
+        product.setShellId(7L);
+        product.setInventoryStatus(InventoryStatus.INSTOCK);
+        product.setRating(4.5);
+        product.setDeleted(false);
+        product.setCreatedAt(Instant.now());
+        product.setUpdatedAt(Instant.now());
+        return product;
+    }
+
+}
@@ -0,0 +1,74 @@
+package ma.alten.alten_backend.benchmark;
+
+import ma.alten.alten_backend.dto.KeysetPageDto;
+import ma.alten.alten_backend.dto.ProductDto;
+import ma.alten.alten_backend.dto.ProductFilter;
+import ma.alten.alten_backend.exceptions.FunctionalException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the {@code ProductService} read paths and of code generation against the seeded catalog.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductServiceBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final ProductFilter FILTER = new ProductFilter(null, null, "Furniture", null, "100-500");
+
+    @Benchmark
+    public Page<ProductDto> listing(BenchmarkCatalog catalog) {
+        return catalog.productService.getAllProducts(0, PAGE_SIZE, null, null, null, null, null, true);
+    }
+
+    @Benchmark
+    public Page<ProductDto> listingWithoutTotal(BenchmarkCatalog catalog) {
+        return catalog.productService.getAllProducts(0, PAGE_SIZE, null, null, null, null, null, false);
+    }
+
+    @Benchmark
+    public Page<ProductDto> deepListing(BenchmarkCatalog catalog) {
+        int middlePage = catalog.catalogSize / PAGE_SIZE / 2;
+        return catalog.productService.getAllProducts(middlePage, PAGE_SIZE, null, null, null, null, null, false);
+    }
+
+    @Benchmark
+    public Page<ProductDto> filteredSearch(BenchmarkCatalog catalog) {
+        return catalog.productService.getAllProducts(0, PAGE_SIZE, FILTER.searchByCode(), FILTER.searchByName(),
+                FILTER.searchByCategory(), FILTER.searchByInventoryStatus(), FILTER.searchByPriceRange(), true);
+    }
+
+    @Benchmark
+    public KeysetPageDto<ProductDto> keysetListing(BenchmarkCatalog catalog) throws FunctionalException {
+        return catalog.productService.getProductsAfter(null, PAGE_SIZE, FILTER);
+    }
+
+    /**
+     * Count of the default listing, a one-row page leaves the count query as the dominant cost.
+     */
+    @Benchmark
+    public long count(BenchmarkCatalog catalog) {
+        return catalog.productRepository.findAllWithDeletedIsFalse(PageRequest.of(0, 1)).getTotalElements();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String generateCodeUnderContention(BenchmarkCatalog catalog) {
+        return catalog.productCodeAllocator.nextCode();
+    }
+
+}
@@ -0,0 +1,120 @@
+package ma.alten.alten_backend.benchmark;
+
+import ma.alten.alten_backend.AltenBackendApiApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Closed-loop HTTP load against the application started once on platform threads and once on
+ * virtual threads, with the same Tomcat thread cap and connection pool. Prints throughput and
+ * latency percentiles for both modes; virtual threads need a Java 21 runtime, on older ones the
+ * test is skipped.
+ * <p>
+ * Tunable with {@code -Dbenchmark.requests}, {@code -Dbenchmark.concurrency},
+ * {@code -Dbenchmark.tomcat-threads} and {@code -Dbenchmark.pool-size}.
+ */
+class ThreadModeLoadTest {
+
+    private static final int CATALOG_SIZE = 10_000;
+
+    @Test
+    @Tag("benchmark")
+    void compareThreadModes() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "virtual threads need a Java 21 runtime");
+        int requests = Integer.getInteger("benchmark.requests", 20_000);
+        int concurrency = Integer.getInteger("benchmark.concurrency", 400);
+        System.out.printf("thread mode load test on Java %s: %d requests, %d in flight%n", Runtime.version(), requests, concurrency);
+
+        LoadResult platform = run(false, requests, concurrency);
+        LoadResult virtual = run(true, requests, concurrency);
+
+        System.out.println("mode      throughput(req/s)   p50(ms)   p95(ms)   p99(ms)   max(ms)");
+        System.out.println(platform.format("platform"));
+        System.out.println(virtual.format("virtual"));
+        assertEquals(0, platform.failures());
+        assertEquals(0, virtual.failures());
+    }
+
+    private LoadResult run(boolean virtualThreads, int requests, int concurrency) throws Exception {
+        String[] properties = Stream.concat(
+                Arrays.stream(BenchmarkCatalog.applicationProperties(virtualThreads ? "virtual" : "platform")),
+                Stream.of("server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "server.tomcat.threads.max=" + Integer.getInteger("benchmark.tomcat-threads", 50),
+                        "spring.datasource.hikari.maximum-pool-size=" + Integer.getInteger("benchmark.pool-size", 10)))
+                .toArray(String[]::new);
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(AltenBackendApiApplication.class)
+                .run(BenchmarkCatalog.arguments(properties))) {
+            BenchmarkCatalog.seed(context.getBean(JdbcTemplate.class), CATALOG_SIZE);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient client = HttpClient.newHttpClient();
+            fire(client, port, Math.min(requests, 2_000), concurrency);
+            return fire(client, port, requests, concurrency);
+        }
+    }
+
+    /**
+     * Keeps {@code concurrency} requests in flight, alternating a filtered listing and a lookup by id.
+     */
+    private LoadResult fire(HttpClient client, int port, int requests, int concurrency) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(concurrency);
+        AtomicInteger failures = new AtomicInteger();
+        long[] latencies = new long[requests];
+        List<CompletableFuture<?>> futures = new ArrayList<>(requests);
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            int index = i;
+            String path = i % 2 == 0
+                    ? "/api/products?size=20&withTotal=false&searchByCategory=" + BenchmarkCatalog.CATEGORIES[i % BenchmarkCatalog.CATEGORIES.length]
+                    : "/api/products/" + (1 + i % CATALOG_SIZE);
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+            long sent = System.nanoTime();
+            futures.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                latencies[index] = System.nanoTime() - sent;
+                if (error != null || response.statusCode() >= 500) {
+                    failures.incrementAndGet();
+                }
+                inFlight.release();
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).exceptionally(error -> null).join();
+        double seconds = (System.nanoTime() - start) / 1_000_000_000d;
+        Arrays.sort(latencies);
+        return new LoadResult(requests / seconds, percentile(latencies, 0.50), percentile(latencies, 0.95),
+                percentile(latencies, 0.99), latencies[latencies.length - 1] / 1_000_000d, failures.get());
+    }
+
+    private static double percentile(long[] sortedLatencies, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(index, 0)] / 1_000_000d;
+    }
+
+    private record LoadResult(double throughput, double p50, double p95, double p99, double max, int failures) {
+
+        String format(String mode) {
+            return String.format("%-9s %17.0f %9.1f %9.1f %9.1f %9.1f", mode, throughput, p50, p95, p99, max);
+        }
+
+    }
+
+}
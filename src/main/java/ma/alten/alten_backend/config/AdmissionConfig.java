@@ -0,0 +1,50 @@
+package ma.alten.alten_backend.config;
+
+import ma.alten.alten_backend.service.AdaptiveConcurrencyLimiter;
+import ma.alten.alten_backend.service.ClientRateLimiter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Set;
+
+/**
+ * Puts the {@link AdmissionInterceptor} in front of the product API, ahead of every other interceptor.
+ * Event streams and exports are left out: they stay open for minutes without holding the database
+ * the whole time, and would only skew the latency the concurrency limit follows.
+ */
+@Configuration
+@ConditionalOnProperty(name = "product.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionConfig implements WebMvcConfigurer {
+
+    private final ClientRateLimiter clientRateLimiter;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final String clientHeader;
+    private final Set<String> apiKeys;
+    private final int expensivePageSize;
+
+    @Autowired
+    public AdmissionConfig(ClientRateLimiter clientRateLimiter, AdaptiveConcurrencyLimiter concurrencyLimiter,
+                           @Value("${product.admission.client-header:X-Api-Key}") String clientHeader,
+                           @Value("${product.admission.api-keys:}") Set<String> apiKeys,
+                           @Value("${product.admission.expensive-page-size:100}") int expensivePageSize) {
+        this.clientRateLimiter = clientRateLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.clientHeader = clientHeader;
+        this.apiKeys = Set.copyOf(apiKeys);
+        this.expensivePageSize = expensivePageSize;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AdmissionInterceptor(clientRateLimiter, concurrencyLimiter, clientHeader, apiKeys, expensivePageSize))
+                .addPathPatterns("/api/**")
+                .excludePathPatterns("/api/products/inventory-stream", "/api/products/export")
+                .order(Ordered.HIGHEST_PRECEDENCE);
+    }
+
+}
@@ -0,0 +1,92 @@
+package ma.alten.alten_backend.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import ma.alten.alten_backend.enumeration.RequestCost;
+import ma.alten.alten_backend.service.AdaptiveConcurrencyLimiter;
+import ma.alten.alten_backend.service.ClientRateLimiter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Set;
+
+/**
+ * Admits a request once its client is within its rate and a concurrency slot is free, the slot is
+ * given back when the request completes. Listings without any filter, or asking for more than
+ * {@code expensive-page-size} rows, are expensive; every other request is cheap.
+ * <p>
+ * Clients are told apart by API key only when the key is one of {@code api-keys}: an arbitrary key
+ * would otherwise buy a fresh burst on every request. Anyone else is limited by address, which
+ * Tomcat takes from {@code X-Forwarded-For} only when the request comes from one of the proxies in
+ * {@code server.tomcat.remoteip.internal-proxies}.
+ */
+@RequiredArgsConstructor
+public class AdmissionInterceptor implements HandlerInterceptor {
+
+    private static final String STARTED_AT = AdmissionInterceptor.class.getName() + ".startedAt";
+
+    private static final Set<String> LISTING_PATTERNS = Set.of("/api/products", "/api/products/summary", "/api/products/archived",
+            "/api/products/keyset", "/api/products/search", "/api/products/facets");
+    private static final Set<String> FILTER_PARAMETERS = Set.of("searchByCode", "searchByName", "searchByCategory",
+            "searchByInventoryStatus", "searchByPriceRange", "q", "category", "inventoryStatus", "minPrice", "maxPrice");
+    private static final Set<String> SIZE_PARAMETERS = Set.of("size", "limit");
+
+    private final ClientRateLimiter clientRateLimiter;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final String clientHeader;
+    private final Set<String> apiKeys;
+    private final int expensivePageSize;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        RequestCost cost = cost(request);
+        clientRateLimiter.acquire(client(request), cost);
+        request.setAttribute(STARTED_AT, concurrencyLimiter.acquire(cost));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(STARTED_AT) instanceof Long startedAt) {
+            request.removeAttribute(STARTED_AT);
+            concurrencyLimiter.release(startedAt);
+        }
+    }
+
+    RequestCost cost(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (!"GET".equals(request.getMethod()) || pattern == null || !LISTING_PATTERNS.contains(pattern.toString())) {
+            return RequestCost.CHEAP;
+        }
+        boolean filtered = FILTER_PARAMETERS.stream().anyMatch(name -> hasText(request.getParameter(name)));
+        boolean largePage = SIZE_PARAMETERS.stream().anyMatch(name -> exceeds(request.getParameter(name), expensivePageSize));
+        return filtered && !largePage ? RequestCost.CHEAP : RequestCost.EXPENSIVE;
+    }
+
+    /**
+     * The API key when the client sends a known one, its address otherwise.
+     */
+    String client(HttpServletRequest request) {
+        String key = request.getHeader(clientHeader);
+        return hasText(key) && apiKeys.contains(key) ? "key:" + key : "address:" + request.getRemoteAddr();
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    private static boolean exceeds(String value, int threshold) {
+        try {
+            return value != null && Integer.parseInt(value.trim()) > threshold;
+        } catch (NumberFormatException e) {
+            // rejected with a 400 by the controller binding
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,13 @@
+package ma.alten.alten_backend.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caches are Caffeine backed and configured under {@code spring.cache}; setting
+ * {@code spring.cache.type=none} turns every cache off without code changes.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+}
@@ -0,0 +1,47 @@
+package ma.alten.alten_backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * With {@code product.db.concurrency-limit.enabled}, on by default in virtual thread mode, the pooled
+ * data source is wrapped in a {@link ConcurrencyLimitingDataSource} holding as many permits as the
+ * pool has connections, unless {@code max-concurrency} says otherwise.
+ */
+@Configuration
+@ConditionalOnProperty(name = "product.db.concurrency-limit.enabled", havingValue = "true")
+@Slf4j
+public class DatabaseConcurrencyConfig {
+
+    @Bean
+    public static BeanPostProcessor databaseConcurrencyLimiter(@Value("${product.db.concurrency-limit.max-concurrency:0}") int maxConcurrency,
+                                                               @Value("${product.db.concurrency-limit.acquire-timeout:5s}") Duration acquireTimeout,
+                                                               ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource dataSource)) {
+                    return bean;
+                }
+                int permits = maxConcurrency > 0 ? maxConcurrency : dataSource.getMaximumPoolSize();
+                log.info("Database concurrency limited to {} connections", permits);
+                ConcurrencyLimitingDataSource limited = new ConcurrencyLimitingDataSource(dataSource, permits, acquireTimeout);
+                meterRegistry.ifAvailable(registry -> Gauge.builder("product.db.permits.available", limited, ConcurrencyLimitingDataSource::getAvailablePermits)
+                        .description("Database permits left before callers have to wait")
+                        .register(registry));
+                return limited;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,237 @@
+package ma.alten.alten_backend.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import ma.alten.alten_backend.service.CategoryDictionary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Database objects that Hibernate's {@code ddl-auto} cannot express. Runs once the entity manager
+ * factory has updated the tables; PostgreSQL specific statements are skipped on other databases.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@Slf4j
+public class ProductSchemaInitializer {
+
+    private static final String POSTGRESQL = "PostgreSQL";
+    private static final int IMAGE_COLUMN_LENGTH = 128;
+    // legacy names mapped per statement, two parameters each
+    private static final int CATEGORY_MIGRATION_CHUNK = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean dropLegacyCategory;
+
+    public ProductSchemaInitializer(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                    @Value("${product.schema.drop-legacy-category:false}") boolean dropLegacyCategory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dropLegacyCategory = dropLegacyCategory;
+    }
+
+    @PostConstruct
+    void initialize() {
+        backfillVersions();
+        backfillDeletedFlags();
+        migrateCategories();
+        if (!isPostgres()) {
+            log.info("Skipping PostgreSQL specific schema objects");
+            return;
+        }
+        alignProductSequence();
+        widenImageColumn();
+        enforceDeletedFlag();
+        createActiveListingIndex();
+        createSearchIndexes();
+    }
+
+    public boolean isPostgres() {
+        String databaseName = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        return POSTGRESQL.equals(databaseName);
+    }
+
+    /**
+     * Rows written before optimistic locking have no version, which Hibernate cannot compare.
+     */
+    private void backfillVersions() {
+        int updated = jdbcTemplate.update("UPDATE product SET version = 0 WHERE version IS NULL");
+        log.debug("Product versions initialized on {} rows", updated);
+    }
+
+    /**
+     * A null deletion flag used to mean active, the entity restriction only accepts false.
+     */
+    private void backfillDeletedFlags() {
+        int updated = jdbcTemplate.update("UPDATE product SET deleted = false WHERE deleted IS NULL");
+        log.debug("Product deletion flags initialized on {} rows", updated);
+    }
+
+    /**
+     * Categories used to be free text repeated on every product row. Each distinct name, compared
+     * ignoring case and spacing, becomes a row of the category table and products are pointed at it
+     * by id, in one transaction. The text column is kept for instances still reading it during a
+     * rolling deploy, rows they write without an id are migrated on the next start. It is only
+     * dropped with {@code product.schema.drop-legacy-category}, once every instance uses the id.
+     */
+    private void migrateCategories() {
+        boolean legacyColumn = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            try (ResultSet columns = connection.getMetaData().getColumns(null, null, "product", "category")) {
+                return columns.next();
+            }
+        }));
+        if (!legacyColumn) {
+            return;
+        }
+        Integer migrated = transactionTemplate.execute(status -> backfillCategoryIds());
+        log.info("Product categories migrated on {} products", migrated);
+        if (dropLegacyCategory) {
+            dropLegacyCategoryColumn();
+        }
+    }
+
+    private int backfillCategoryIds() {
+        List<String> names = jdbcTemplate.queryForList(
+                "SELECT DISTINCT category FROM product WHERE category IS NOT NULL AND category_id IS NULL", String.class);
+        if (names.isEmpty()) {
+            return 0;
+        }
+        // same display name as a category created at runtime, another instance may be migrating too
+        Map<String, String> displayNames = new HashMap<>();
+        for (String name : names) {
+            String normalizedName = CategoryDictionary.normalize(name);
+            if (normalizedName != null) {
+                displayNames.putIfAbsent(normalizedName, CategoryDictionary.displayName(name));
+            }
+        }
+        displayNames.forEach((normalizedName, name) -> jdbcTemplate.update(
+                "INSERT INTO category (id, name, normalized_name) VALUES (nextval('category_seq'), ?, ?) ON CONFLICT DO NOTHING",
+                name, normalizedName));
+        Map<String, Integer> categoryIds = new HashMap<>();
+        jdbcTemplate.query("SELECT id, normalized_name FROM category",
+                (RowCallbackHandler) row -> categoryIds.put(row.getString("normalized_name"), row.getInt("id")));
+
+        // one pass over the product table per chunk of names rather than per name, the column has no index
+        int migrated = 0;
+        for (int from = 0; from < names.size(); from += CATEGORY_MIGRATION_CHUNK) {
+            List<String> chunk = names.subList(from, Math.min(from + CATEGORY_MIGRATION_CHUNK, names.size()));
+            List<Object> cases = new ArrayList<>();
+            List<String> mapped = new ArrayList<>();
+            for (String name : chunk) {
+                Integer categoryId = categoryIds.get(CategoryDictionary.normalize(name));
+                if (categoryId != null) {
+                    cases.add(name);
+                    cases.add(categoryId);
+                    mapped.add(name);
+                }
+            }
+            if (mapped.isEmpty()) {
+                continue;
+            }
+            String sql = "UPDATE product SET category_id = CASE category" + " WHEN ? THEN ?".repeat(mapped.size()) + " END "
+                    + "WHERE category_id IS NULL AND category IN (" + String.join(", ", Collections.nCopies(mapped.size(), "?")) + ")";
+            List<Object> parameters = new ArrayList<>(cases);
+            parameters.addAll(mapped);
+            migrated += jdbcTemplate.update(sql, parameters.toArray());
+        }
+        return migrated;
+    }
+
+    /**
+     * Refused while a row still has a category name but no id, which would lose that category.
+     */
+    private void dropLegacyCategoryColumn() {
+        Long unmigrated = jdbcTemplate.queryForObject("SELECT count(*) FROM product WHERE category_id IS NULL "
+                + "AND category IS NOT NULL AND trim(category) <> ''", Long.class);
+        if (unmigrated != null && unmigrated > 0) {
+            log.warn("Legacy product category column kept, {} products have no category id yet", unmigrated);
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE product DROP COLUMN category");
+        log.info("Legacy product category column dropped");
+    }
+
+    /**
+     * Product ids used to come from an identity column. Moves {@code product_seq} past the ids
+     * already in the table so the pooled sequence generator never hands out an existing id.
+     */
+    private void alignProductSequence() {
+        jdbcTemplate.execute("SELECT setval('product_seq', GREATEST((SELECT COALESCE(MAX(id), 0) + 1 FROM product), "
+                + "(SELECT last_value FROM product_seq)))");
+        log.debug("Product id sequence aligned");
+    }
+
+    /**
+     * {@code ddl-auto} never alters existing columns: content-addressed image names are longer than
+     * the 64 characters the column was created with. Only altered while narrower, the change locks the table.
+     */
+    private void widenImageColumn() {
+        if (productColumn("image").get("character_maximum_length") instanceof Number length && length.intValue() < IMAGE_COLUMN_LENGTH) {
+            jdbcTemplate.execute("ALTER TABLE product ALTER COLUMN image TYPE varchar(" + IMAGE_COLUMN_LENGTH + ")");
+            log.info("Product image column widened from {} to {} characters", length, IMAGE_COLUMN_LENGTH);
+        }
+    }
+
+    /**
+     * The column predates its default and NOT NULL constraint, which {@code ddl-auto} only sets on new tables.
+     * Each is only altered while missing: both lock the table and NOT NULL scans it.
+     */
+    private void enforceDeletedFlag() {
+        Map<String, Object> column = productColumn("deleted");
+        if (!"false".equals(column.get("column_default"))) {
+            jdbcTemplate.execute("ALTER TABLE product ALTER COLUMN deleted SET DEFAULT false");
+            log.info("Product deletion flag default set");
+        }
+        if ("YES".equals(column.get("is_nullable"))) {
+            jdbcTemplate.execute("ALTER TABLE product ALTER COLUMN deleted SET NOT NULL");
+            log.info("Product deletion flag made NOT NULL");
+        }
+        log.debug("Product deletion flag constrained");
+    }
+
+    private Map<String, Object> productColumn(String name) {
+        return jdbcTemplate.queryForMap("SELECT column_default, is_nullable, character_maximum_length FROM information_schema.columns "
+                + "WHERE table_schema = current_schema() AND table_name = 'product' AND column_name = ?", name);
+    }
+
+    /**
+     * Matches the default listing order over active products only, so the first page is read from
+     * the index top-down instead of sorting the table.
+     */
+    private void createActiveListingIndex() {
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_product_active_updated ON product (updated_at DESC, id DESC) WHERE NOT deleted");
+        log.debug("Product active listing index ready");
+    }
+
+    /**
+     * Trigram GIN indexes turn the {@code lower(column) LIKE '%term%'} searches into index scans.
+     */
+    private void createSearchIndexes() {
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+        } catch (DataAccessException e) {
+            log.warn("pg_trgm extension unavailable, product searches will scan the product table without ranking", e);
+            return;
+        }
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_product_name_trgm ON product USING gin (lower(name) gin_trgm_ops)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_product_code_trgm ON product USING gin (lower(code) gin_trgm_ops)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_product_description_trgm ON product USING gin (lower(description) gin_trgm_ops)");
+        log.debug("Product search indexes ready");
+    }
+
+}
@@ -0,0 +1,27 @@
+package ma.alten.alten_backend.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread, read per request by
+ * {@link QueryCountInterceptor}. Registered through {@code hibernate.session_factory.statement_inspector}.
+ */
+public class QueryCountingStatementInspector implements StatementInspector {
+
+    private static final ThreadLocal<int[]> STATEMENTS = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.get()[0]++;
+        return sql;
+    }
+
+    static int count() {
+        return STATEMENTS.get()[0];
+    }
+
+    static void clear() {
+        STATEMENTS.remove();
+    }
+
+}
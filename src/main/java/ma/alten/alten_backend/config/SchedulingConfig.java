@@ -0,0 +1,15 @@
+package ma.alten.alten_backend.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Background jobs, such as the outbox relay. Disabled with {@code product.scheduling.enabled=false}
+ * on nodes that only serve requests.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "product.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
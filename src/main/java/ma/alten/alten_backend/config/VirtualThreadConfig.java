@@ -0,0 +1,23 @@
+package ma.alten.alten_backend.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Refuses to start with {@code spring.threads.virtual.enabled} on a runtime older than Java 21, where
+ * Spring Boot would silently stay on platform threads while the database concurrency limit, meant
+ * for virtual threads, is still switched on.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    public VirtualThreadConfig() {
+        if (JavaVersion.getJavaVersion().isOlderThan(JavaVersion.TWENTY_ONE)) {
+            throw new IllegalStateException("spring.threads.virtual.enabled needs a Java 21 runtime, running on Java "
+                    + Runtime.version().feature());
+        }
+    }
+
+}
@@ -0,0 +1,30 @@
+package ma.alten.alten_backend.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.alten.alten_backend.service.InventoryStreamService;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/products/inventory-stream")
+@AllArgsConstructor
+@Slf4j
+public class InventoryStreamController {
+
+    private final InventoryStreamService inventoryStreamService;
+
+    @Operation(summary = "Stream inventory changes", description = "Flux Server-Sent Events des changements de statut de stock et de quantité, filtrable par identifiants de produits ou par catégorie")
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamInventory(
+            @RequestParam(required = false) Set<Long> ids,
+            @RequestParam(required = false) String category
+    ) {
+        return inventoryStreamService.subscribe(ids, category);
+    }
+
+}
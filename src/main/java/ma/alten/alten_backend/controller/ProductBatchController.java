@@ -0,0 +1,37 @@
+package ma.alten.alten_backend.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.alten.alten_backend.dto.BatchUpdateResultDto;
+import ma.alten.alten_backend.dto.ProductDto;
+import ma.alten.alten_backend.exceptions.FunctionalException;
+import ma.alten.alten_backend.service.ProductBatchService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/products/batch")
+@AllArgsConstructor
+@Slf4j
+public class ProductBatchController {
+
+    private final ProductBatchService productBatchService;
+
+    @Operation(summary = "Retrieve products by IDs", description = "Récupère plusieurs produits par leurs IDs en une seule requête")
+    @GetMapping
+    public ResponseEntity<List<ProductDto>> getProducts(@RequestParam List<Long> ids) throws FunctionalException {
+        log.info("get products by ids, {} ids", ids.size());
+        return ResponseEntity.ok(productBatchService.getProducts(ids));
+    }
+
+    @Operation(summary = "Update several products", description = "Met à jour plusieurs produits dans une seule transaction, avec un statut par produit")
+    @PatchMapping
+    public ResponseEntity<List<BatchUpdateResultDto>> updateProducts(@RequestBody List<ProductDto> productDtos) throws FunctionalException {
+        log.info("Batch update, {} products", productDtos.size());
+        return ResponseEntity.ok(productBatchService.updateProducts(productDtos));
+    }
+
+}
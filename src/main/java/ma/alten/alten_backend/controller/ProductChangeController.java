@@ -0,0 +1,28 @@
+package ma.alten.alten_backend.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.alten.alten_backend.dto.ProductChangeFeedDto;
+import ma.alten.alten_backend.service.ProductOutbox;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/products/changes")
+@AllArgsConstructor
+@Slf4j
+public class ProductChangeController {
+
+    private final ProductOutbox productOutbox;
+
+    @Operation(summary = "Retrieve product changes since a token", description = "Récupère les modifications de produits publiées après le jeton donné, à reprendre avec le jeton suivant retourné")
+    @GetMapping
+    public ResponseEntity<ProductChangeFeedDto> getChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "100") int limit
+    ) {
+        return ResponseEntity.ok(productOutbox.changesSince(since, limit));
+    }
+
+}
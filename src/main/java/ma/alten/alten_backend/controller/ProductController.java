@@ -3,17 +3,34 @@ package ma.alten.alten_backend.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import ma.alten.alten_backend.dto.FacetedSearchResultDto;
+import ma.alten.alten_backend.dto.KeysetPageDto;
+import ma.alten.alten_backend.dto.ListingRevisionDto;
 import ma.alten.alten_backend.dto.ProductDto;
+import ma.alten.alten_backend.dto.ProductFilter;
+import ma.alten.alten_backend.dto.ProductStatisticsDto;
+import ma.alten.alten_backend.dto.ProductSummaryDto;
+import ma.alten.alten_backend.dto.QuantityAdjustmentDto;
+import ma.alten.alten_backend.exceptions.FunctionalException;
+import ma.alten.alten_backend.exceptions.PreconditionFailedException;
 import ma.alten.alten_backend.exceptions.TechnicalException;
 import ma.alten.alten_backend.service.ProductService;
+import ma.alten.alten_backend.service.ProductStockService;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/products")
@@ -21,7 +38,12 @@ import java.io.IOException;
 @Slf4j
 public class ProductController {
 
+    private static final int MAX_SEARCH_RESULTS = 100;
+    // caches may keep product reads but must revalidate them, which conditional requests make cheap
+    private static final CacheControl REVALIDATE = CacheControl.noCache();
+
     private final ProductService productService;
+    private final ProductStockService productStockService;
 
     @Operation(summary = "Create a new product", description = "Crée un nouveau produit")
     @PostMapping( consumes = MediaType.MULTIPART_FORM_DATA_VALUE,produces = MediaType.APPLICATION_JSON_VALUE)
@@ -40,27 +62,127 @@ public class ProductController {
             @RequestParam(required = false) final String searchByName,
             @RequestParam(required = false) final String searchByCategory,
             @RequestParam(required = false) final String searchByInventoryStatus,
-            @RequestParam(required = false) final String searchByPriceRange
+            @RequestParam(required = false) final String searchByPriceRange,
+            @RequestParam(defaultValue = "true") boolean withTotal,
+            WebRequest webRequest
+    ) {
+        ProductFilter filter = new ProductFilter(searchByCode, searchByName, searchByCategory, searchByInventoryStatus, searchByPriceRange);
+        ListingRevisionDto revision = productService.getListingRevision(filter, isConditional(webRequest));
+        if (revision == null) {
+            return ResponseEntity.ok(productService.getAllProducts(page, size, searchByCode, searchByName, searchByCategory, searchByInventoryStatus, searchByPriceRange, withTotal));
+        }
+        String eTag = listingTag(filter, page, size, withTotal, revision);
+        long lastModified = epochMilli(revision.lastModified());
+        if (webRequest.checkNotModified(eTag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).lastModified(lastModified).cacheControl(REVALIDATE).build();
+        }
+        Page<ProductDto> products = productService.getAllProducts(page, size, searchByCode, searchByName, searchByCategory, searchByInventoryStatus, searchByPriceRange, withTotal);
+        return ResponseEntity.ok().eTag(eTag).lastModified(lastModified).cacheControl(REVALIDATE).body(products);
+    }
+
+    @Operation(summary = "Retrieve archived products", description = "Récupère la liste paginée des produits supprimés logiquement, les plus récemment archivés en premier")
+    @GetMapping("/archived")
+    public ResponseEntity<Page<ProductDto>> getArchivedProducts(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "5") int size
+    ) {
+        return ResponseEntity.ok(productService.getArchivedProducts(page, size));
+    }
+
+    @Operation(summary = "Retrieve product summaries", description = "Récupère la liste des produits réduite aux colonnes de la vue liste (id, code, nom, prix, statut de stock, image)")
+    @GetMapping("/summary")
+    public ResponseEntity<Page<ProductSummaryDto>> getProductSummaries(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "5") int size,
+            @RequestParam(required = false) final String searchByCode,
+            @RequestParam(required = false) final String searchByName,
+            @RequestParam(required = false) final String searchByCategory,
+            @RequestParam(required = false) final String searchByInventoryStatus,
+            @RequestParam(required = false) final String searchByPriceRange,
+            @RequestParam(defaultValue = "true") boolean withTotal
     ) {
-        Page<ProductDto> products = productService.getAllProducts(page, size, searchByCode, searchByName, searchByCategory, searchByInventoryStatus, searchByPriceRange);
-        return ResponseEntity.ok(products);
+        ProductFilter filter = new ProductFilter(searchByCode, searchByName, searchByCategory, searchByInventoryStatus, searchByPriceRange);
+        return ResponseEntity.ok(productService.getProductSummaries(page, size, filter, withTotal));
+    }
+
+    @Operation(summary = "Retrieve products with keyset pagination", description = "Récupère les produits page par page à partir d'un curseur")
+    @GetMapping("/keyset")
+    public ResponseEntity<KeysetPageDto<ProductDto>> getProductsKeyset(
+            @RequestParam(required = false) final String cursor,
+            @RequestParam(defaultValue = "5") int size,
+            @RequestParam(required = false) final String searchByCode,
+            @RequestParam(required = false) final String searchByName,
+            @RequestParam(required = false) final String searchByCategory,
+            @RequestParam(required = false) final String searchByInventoryStatus,
+            @RequestParam(required = false) final String searchByPriceRange
+    ) throws FunctionalException {
+        ProductFilter filter = new ProductFilter(searchByCode, searchByName, searchByCategory, searchByInventoryStatus, searchByPriceRange);
+        return ResponseEntity.ok(productService.getProductsAfter(cursor, size, filter));
+    }
+
+
+    @Operation(summary = "Search products by relevance", description = "Recherche des produits par nom, code ou description, classés par pertinence")
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductDto>> searchProducts(@RequestParam("q") String term,
+                                                           @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(productService.searchProducts(term, Math.min(limit, MAX_SEARCH_RESULTS)));
     }
 
+    @Operation(summary = "Search products with facet counts", description = "Recherche des produits avec le nombre de résultats par catégorie, statut de stock et tranche de prix")
+    @GetMapping("/facets")
+    public ResponseEntity<FacetedSearchResultDto> facetedSearch(
+            @RequestParam(required = false) final String q,
+            @RequestParam(required = false) final String category,
+            @RequestParam(required = false) final String inventoryStatus,
+            @RequestParam(required = false) final Double minPrice,
+            @RequestParam(required = false) final Double maxPrice,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size
+    ) throws FunctionalException {
+        return ResponseEntity.ok(productService.facetedSearch(q, category, inventoryStatus, minPrice, maxPrice, page, size));
+    }
 
-    @Operation(summary = "Update product details", description = "Récupère les détails d'un produit par ID")
+    @Operation(summary = "Retrieve catalog statistics", description = "Récupère le nombre de produits, la quantité totale et la valeur du stock, au total, par catégorie et par statut de stock")
+    @GetMapping("/statistics")
+    public ResponseEntity<ProductStatisticsDto> getProductStatistics() {
+        return ResponseEntity.ok(productService.getProductStatistics());
+    }
+
+    @Operation(summary = "Update product details", description = "Met à jour un produit, sous condition de version avec l'en-tête If-Match")
     @PatchMapping("/{id}")
-    public ResponseEntity<ProductDto> updateProduct(@PathVariable Long id, @RequestBody ProductDto productDTO) throws TechnicalException {
+    public ResponseEntity<ProductDto> updateProduct(@PathVariable Long id,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                    @RequestBody ProductDto productDTO) throws TechnicalException, FunctionalException {
         log.info("Update product: {}", id);
-        ProductDto updatedProduct = productService.updateProduct(id, productDTO);
-        return ResponseEntity.ok(updatedProduct);
+        ProductDto updatedProduct = productService.updateProduct(id, productDTO, expectedVersion(ifMatch));
+        return withVersion(updatedProduct);
+    }
+
+    @Operation(summary = "Adjust product stock", description = "Ajoute ou retire une quantité du stock d'un produit de façon atomique")
+    @PostMapping("/{id}/quantity-adjustments")
+    public ResponseEntity<ProductDto> adjustQuantity(@PathVariable Long id, @RequestBody QuantityAdjustmentDto adjustment)
+            throws TechnicalException, FunctionalException {
+        log.info("Adjust quantity of product {} by {}", id, adjustment.getDelta());
+        return withVersion(productStockService.adjustQuantity(id, adjustment.getDelta()));
     }
 
 
     @Operation(summary = "Retrieve product by ID", description = "Récupère les détails d'un produit par ID")
     @GetMapping("/{id}")
-    public ResponseEntity<ProductDto> getProductById(@PathVariable Long id) throws TechnicalException {
+    public ResponseEntity<ProductDto> getProductById(@PathVariable Long id, WebRequest webRequest) throws TechnicalException {
         log.info("get product by id: {}", id);
-        return ResponseEntity.ok(productService.getProductById(id));
+        // validators come from the cached product itself, one read for the tag and the body
+        ProductDto productDto = productService.getProductById(id);
+        long lastModified = epochMilli(productDto.getUpdatedAt());
+        boolean notModified = productDto.getVersion() == null
+                ? webRequest.checkNotModified(lastModified)
+                : webRequest.checkNotModified(String.valueOf(productDto.getVersion()), lastModified);
+        if (notModified) {
+            return tagged(ResponseEntity.status(HttpStatus.NOT_MODIFIED), productDto.getVersion())
+                    .lastModified(lastModified).cacheControl(REVALIDATE).build();
+        }
+        return tagged(ResponseEntity.ok(), productDto.getVersion())
+                .lastModified(lastModified).cacheControl(REVALIDATE).body(productDto);
     }
 
 
@@ -81,4 +203,49 @@ public class ProductController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Weak tag of a listing page: the same page of an unchanged listing has the same tag, whatever its encoding.
+     */
+    private static String listingTag(ProductFilter filter, int page, int size, boolean withTotal, ListingRevisionDto revision) {
+        String key = filter.normalized() + "|" + page + "|" + size + "|" + withTotal + "|" + revision.lastModified() + "|" + revision.count();
+        return "W/\"" + DigestUtils.md5DigestAsHex(key.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    private static boolean isConditional(WebRequest webRequest) {
+        return webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null || webRequest.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+    }
+
+    private static long epochMilli(Instant instant) {
+        return instant == null ? -1 : instant.toEpochMilli();
+    }
+
+    private static ResponseEntity<ProductDto> withVersion(ProductDto productDto) {
+        return tagged(ResponseEntity.ok(), productDto.getVersion()).body(productDto);
+    }
+
+    /**
+     * The version of the product is its ETag, what clients send back in {@code If-Match}.
+     */
+    private static ResponseEntity.BodyBuilder tagged(ResponseEntity.BodyBuilder response, Long version) {
+        return version == null ? response : response.eTag(String.valueOf(version));
+    }
+
+    /**
+     * Version expected by an {@code If-Match} header, null when absent or {@code *}.
+     */
+    private static Long expectedVersion(String ifMatch) throws PreconditionFailedException {
+        if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        try {
+            return Long.valueOf(tag.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match does not contain a product version: " + ifMatch);
+        }
+    }
+
 }
@@ -0,0 +1,45 @@
+package ma.alten.alten_backend.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.alten.alten_backend.service.ProductImageService;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/api/products/images")
+@AllArgsConstructor
+@Slf4j
+public class ProductImageController {
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+    private final ProductImageService productImageService;
+
+    /**
+     * Image names are content hashes, so a name always designates the same bytes: the ETag is the name
+     * itself and the response may be cached forever. {@code If-None-Match} and {@code Range} requests
+     * are answered by Spring from the headers and the file resource.
+     */
+    @Operation(summary = "Retrieve a product image", description = "Récupère une image produit, ou une de ses variantes redimensionnées")
+    @GetMapping("/{fileName}")
+    public ResponseEntity<Resource> getImage(@PathVariable String fileName, @RequestParam(required = false) Integer width) {
+        log.debug("get product image: {} width: {}", fileName, width);
+        return productImageService.findImage(fileName, width)
+                .map(image -> ResponseEntity.ok()
+                        .eTag(image.getFileName().toString())
+                        .cacheControl(IMMUTABLE)
+                        .contentType(MediaTypeFactory.getMediaType(fileName).orElse(MediaType.APPLICATION_OCTET_STREAM))
+                        .body((Resource) new FileSystemResource(image)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+}
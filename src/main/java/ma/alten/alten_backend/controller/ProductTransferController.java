@@ -0,0 +1,56 @@
+package ma.alten.alten_backend.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.alten.alten_backend.dto.ImportReportDto;
+import ma.alten.alten_backend.enumeration.ExportFormat;
+import ma.alten.alten_backend.exceptions.FunctionalException;
+import ma.alten.alten_backend.service.ProductExportService;
+import ma.alten.alten_backend.service.ProductImportService;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/products")
+@AllArgsConstructor
+@Slf4j
+public class ProductTransferController {
+
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+
+    private final ProductImportService productImportService;
+    private final ProductExportService productExportService;
+
+    @Operation(summary = "Bulk import products", description = "Importe un catalogue de produits depuis un flux CSV ou NDJSON")
+    @PostMapping(value = "/import", consumes = {ProductImportService.TEXT_CSV_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ImportReportDto> importProducts(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                          InputStream body) throws FunctionalException, IOException {
+        log.info("Importing products, content type: {}", contentType);
+        ImportReportDto report = productImportService.importProducts(body, MediaType.parseMediaType(contentType));
+        return ResponseEntity.ok(report);
+    }
+
+    @Operation(summary = "Export the whole catalog", description = "Exporte tout le catalogue en flux NDJSON ou CSV, éventuellement compressé en gzip")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "ndjson") String format,
+                                                                @RequestParam(defaultValue = "false") boolean gzip) throws FunctionalException {
+        log.info("Exporting products, format: {} gzip: {}", format, gzip);
+        ExportFormat exportFormat = productExportService.resolveFormat(format);
+        String fileName = "products." + exportFormat.getValue() + (gzip ? ".gz" : "");
+        StreamingResponseBody body = outputStream -> productExportService.exportProducts(outputStream, exportFormat, gzip);
+        return ResponseEntity.ok()
+                .contentType(gzip ? GZIP : MediaType.parseMediaType(exportFormat.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+
+}
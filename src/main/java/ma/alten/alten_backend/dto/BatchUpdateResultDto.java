@@ -0,0 +1,20 @@
+package ma.alten.alten_backend.dto;
+
+import lombok.*;
+import ma.alten.alten_backend.enumeration.BatchItemStatus;
+
+import java.io.Serializable;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchUpdateResultDto implements Serializable {
+
+    private Long id;
+    private BatchItemStatus status;
+    private String message;
+    private ProductDto product;
+
+}
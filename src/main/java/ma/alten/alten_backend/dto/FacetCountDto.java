@@ -0,0 +1,17 @@
+package ma.alten.alten_backend.dto;
+
+import lombok.*;
+
+import java.io.Serializable;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FacetCountDto implements Serializable {
+
+    private String value;
+    private long count;
+
+}
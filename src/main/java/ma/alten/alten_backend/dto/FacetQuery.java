@@ -0,0 +1,15 @@
+package ma.alten.alten_backend.dto;
+
+import ma.alten.alten_backend.enumeration.InventoryStatus;
+
+/**
+ * Criteria of a faceted search, every criterion is optional.
+ */
+public record FacetQuery(String text,
+                         String category,
+                         InventoryStatus inventoryStatus,
+                         Double minPrice,
+                         Double maxPrice,
+                         int page,
+                         int size) {
+}
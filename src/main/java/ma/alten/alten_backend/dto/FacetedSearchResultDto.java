@@ -0,0 +1,21 @@
+package ma.alten.alten_backend.dto;
+
+import lombok.*;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FacetedSearchResultDto implements Serializable {
+
+    private long total;
+    private List<ProductDto> products;
+    private List<FacetCountDto> categories;
+    private List<FacetCountDto> inventoryStatuses;
+    private List<FacetCountDto> priceRanges;
+
+}
@@ -0,0 +1,22 @@
+package ma.alten.alten_backend.dto;
+
+import lombok.*;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportChunkReportDto implements Serializable {
+
+    private int chunkIndex;
+    private long firstRow;
+    private long lastRow;
+    private int importedRows;
+    private int failedRows;
+    private List<ImportRowErrorDto> errors;
+
+}
@@ -0,0 +1,20 @@
+package ma.alten.alten_backend.dto;
+
+import lombok.*;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportReportDto implements Serializable {
+
+    private long totalRows;
+    private long importedRows;
+    private long failedRows;
+    private List<ImportChunkReportDto> chunks;
+
+}
@@ -0,0 +1,17 @@
+package ma.alten.alten_backend.dto;
+
+import lombok.*;
+
+import java.io.Serializable;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportRowErrorDto implements Serializable {
+
+    private long rowNumber;
+    private String message;
+
+}
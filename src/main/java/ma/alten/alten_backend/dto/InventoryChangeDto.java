@@ -0,0 +1,24 @@
+package ma.alten.alten_backend.dto;
+
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * Stock state of a product pushed to the inventory stream subscribers.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InventoryChangeDto implements Serializable {
+
+    private Long productId;
+    private String code;
+    private String category;
+    private String inventoryStatus;
+    private Integer quantity;
+    private Long version;
+
+}
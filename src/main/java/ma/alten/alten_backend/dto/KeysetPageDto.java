@@ -0,0 +1,22 @@
+package ma.alten.alten_backend.dto;
+
+import lombok.*;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * One page of a keyset (cursor) listing. {@code nextCursor} is null on the last page.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class KeysetPageDto<T> implements Serializable {
+
+    private List<T> content;
+    private int size;
+    private String nextCursor;
+
+}
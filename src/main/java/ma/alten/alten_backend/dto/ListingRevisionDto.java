@@ -0,0 +1,10 @@
+package ma.alten.alten_backend.dto;
+
+import java.time.Instant;
+
+/**
+ * Most recent update among the products matching a listing filter, and their number. The count
+ * changes when a product leaves the listing, which the most recent update alone would not show.
+ */
+public record ListingRevisionDto(Instant lastModified, Long count) {
+}
@@ -0,0 +1,20 @@
+package ma.alten.alten_backend.dto;
+
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductAggregateDto implements Serializable {
+
+    private String value;
+    private long productCount;
+    private long totalQuantity;
+    private BigDecimal stockValue;
+
+}
@@ -0,0 +1,26 @@
+package ma.alten.alten_backend.dto;
+
+import lombok.*;
+import ma.alten.alten_backend.enumeration.ProductChangeType;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * One entry of the product change feed. {@code product} is the state after the change, the last
+ * known state for an archived or deleted product when it was loaded.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductChangeDto implements Serializable {
+
+    private Long sequenceNumber;
+    private ProductChangeType type;
+    private Long productId;
+    private Instant occurredAt;
+    private ProductDto product;
+
+}
@@ -0,0 +1,11 @@
+package ma.alten.alten_backend.dto;
+
+import java.util.List;
+
+/**
+ * Changes published after a token. {@code nextToken} is passed back as {@code since} to get the
+ * following ones; {@code truncated} means changes after the given token were already purged and
+ * the consumer has to resynchronize from the full listing.
+ */
+public record ProductChangeFeedDto(List<ProductChangeDto> changes, long nextToken, boolean truncated) {
+}
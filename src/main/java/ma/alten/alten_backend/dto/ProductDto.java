@@ -4,6 +4,7 @@ import lombok.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.Serializable;
+import java.time.Instant;
 
 @Getter
 @Setter
@@ -24,6 +25,8 @@ public class ProductDto implements Serializable {
     private Long shellId;
     private String inventoryStatus;
     private Double rating;
+    private Long version;
+    private Instant updatedAt;
 
 
 }
@@ -0,0 +1,55 @@
+package ma.alten.alten_backend.dto;
+
+import java.util.Locale;
+import java.util.StringJoiner;
+
+/**
+ * Search criteria accepted by the product listing endpoints.
+ * Every criterion is optional, a null value means "no filter".
+ */
+public record ProductFilter(String searchByCode,
+                            String searchByName,
+                            String searchByCategory,
+                            String searchByInventoryStatus,
+                            String searchByPriceRange) {
+
+    public static final ProductFilter NONE = new ProductFilter(null, null, null, null, null);
+
+    public boolean isEmpty() {
+        return searchByCode == null && searchByName == null && searchByCategory == null
+                && searchByInventoryStatus == null && searchByPriceRange == null;
+    }
+
+    /**
+     * Same criteria with the case-insensitive ones lower-cased, so equivalent searches compare equal.
+     */
+    public ProductFilter normalized() {
+        return new ProductFilter(lowerCase(searchByCode), lowerCase(searchByName), searchByCategory,
+                searchByInventoryStatus, searchByPriceRange);
+    }
+
+    /**
+     * Names of the criteria in use such as {@code category+priceRange}, {@code none} without any;
+     * a bounded value fit for metric tags.
+     */
+    public String combination() {
+        StringJoiner joiner = new StringJoiner("+").setEmptyValue("none");
+        addIfPresent(joiner, "code", searchByCode);
+        addIfPresent(joiner, "name", searchByName);
+        addIfPresent(joiner, "category", searchByCategory);
+        addIfPresent(joiner, "inventoryStatus", searchByInventoryStatus);
+        addIfPresent(joiner, "priceRange", searchByPriceRange);
+        return joiner.toString();
+    }
+
+    private static void addIfPresent(StringJoiner joiner, String name, String value) {
+        if (value != null) {
+            joiner.add(name);
+        }
+    }
+
+    private static String lowerCase(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+}
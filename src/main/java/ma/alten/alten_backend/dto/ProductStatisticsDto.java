@@ -0,0 +1,21 @@
+package ma.alten.alten_backend.dto;
+
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductStatisticsDto implements Serializable {
+
+    private ProductAggregateDto total;
+    private List<ProductAggregateDto> categories;
+    private List<ProductAggregateDto> inventoryStatuses;
+    private Instant reconciledAt;
+
+}
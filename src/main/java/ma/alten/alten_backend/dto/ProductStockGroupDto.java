@@ -0,0 +1,10 @@
+package ma.alten.alten_backend.dto;
+
+import ma.alten.alten_backend.enumeration.InventoryStatus;
+
+/**
+ * Stock totals of the active products sharing a category and an inventory status, the sums are null
+ * when no product of the group has the column set.
+ */
+public record ProductStockGroupDto(String category, InventoryStatus inventoryStatus, Long productCount, Long totalQuantity, Double stockValue) {
+}
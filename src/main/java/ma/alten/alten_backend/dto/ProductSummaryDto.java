@@ -0,0 +1,25 @@
+package ma.alten.alten_backend.dto;
+
+import lombok.*;
+import ma.alten.alten_backend.enumeration.InventoryStatus;
+
+import java.io.Serializable;
+
+/**
+ * Columns of the list view, selected directly by the summary listing without loading entities.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductSummaryDto implements Serializable {
+
+    private Long id;
+    private String code;
+    private String name;
+    private Double price;
+    private InventoryStatus inventoryStatus;
+    private String image;
+
+}
@@ -0,0 +1,16 @@
+package ma.alten.alten_backend.dto;
+
+import lombok.*;
+
+import java.io.Serializable;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class QuantityAdjustmentDto implements Serializable {
+
+    private int delta;
+
+}
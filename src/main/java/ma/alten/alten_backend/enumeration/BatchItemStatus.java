@@ -0,0 +1,18 @@
+package ma.alten.alten_backend.enumeration;
+
+import lombok.Getter;
+
+@Getter
+public enum BatchItemStatus {
+
+    UPDATED("updated"),
+    NOT_FOUND("notFound"),
+    INVALID("invalid"),
+    CONFLICT("conflict");
+
+    private final String value;
+    BatchItemStatus(String value) {
+        this.value = value;
+    }
+
+}
@@ -0,0 +1,18 @@
+package ma.alten.alten_backend.enumeration;
+
+import lombok.Getter;
+
+@Getter
+public enum ExportFormat {
+
+    NDJSON("ndjson", "application/x-ndjson"),
+    CSV("csv", "text/csv");
+
+    private final String value;
+    private final String mediaType;
+    ExportFormat(String value, String mediaType) {
+        this.value = value;
+        this.mediaType = mediaType;
+    }
+
+}
@@ -0,0 +1,18 @@
+package ma.alten.alten_backend.enumeration;
+
+import lombok.Getter;
+
+@Getter
+public enum ProductChangeType {
+
+    CREATED("created"),
+    UPDATED("updated"),
+    ARCHIVED("archived"),
+    DELETED("deleted");
+
+    private final String value;
+    ProductChangeType(String value) {
+        this.value = value;
+    }
+
+}
@@ -0,0 +1,16 @@
+package ma.alten.alten_backend.enumeration;
+
+import lombok.Getter;
+
+@Getter
+public enum RequestCost {
+
+    CHEAP("cheap"),
+    EXPENSIVE("expensive");
+
+    private final String value;
+    RequestCost(String value) {
+        this.value = value;
+    }
+
+}
@@ -0,0 +1,28 @@
+package ma.alten.alten_backend.event;
+
+import ma.alten.alten_backend.dto.ProductDto;
+import ma.alten.alten_backend.enumeration.ProductChangeType;
+
+/**
+ * Published by every product write. {@code before} is the state prior to the change when it was
+ * loaded, {@code after} the state once applied; either is null when it does not exist.
+ */
+public record ProductChangedEvent(ProductChangeType type, Long productId, ProductDto before, ProductDto after) {
+
+    public static ProductChangedEvent created(ProductDto after) {
+        return new ProductChangedEvent(ProductChangeType.CREATED, after.getId(), null, after);
+    }
+
+    public static ProductChangedEvent updated(ProductDto before, ProductDto after) {
+        return new ProductChangedEvent(ProductChangeType.UPDATED, after.getId(), before, after);
+    }
+
+    public static ProductChangedEvent archived(ProductDto before) {
+        return new ProductChangedEvent(ProductChangeType.ARCHIVED, before.getId(), before, null);
+    }
+
+    public static ProductChangedEvent deleted(Long productId, ProductDto before) {
+        return new ProductChangedEvent(ProductChangeType.DELETED, productId, before, null);
+    }
+
+}
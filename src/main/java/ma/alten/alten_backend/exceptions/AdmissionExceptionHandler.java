@@ -0,0 +1,45 @@
+package ma.alten.alten_backend.exceptions;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.alten.alten_backend.config.Messages;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import static ma.alten.alten_backend.util.constants.GlobalConstants.REQUEST_OVERLOADED;
+import static ma.alten.alten_backend.util.constants.GlobalConstants.REQUEST_RATE_LIMITED;
+
+/**
+ * A client over its rate is a 429, a request shed because the service is saturated is a 503; both
+ * tell when to come back with {@code Retry-After}, in whole seconds.
+ */
+@RestControllerAdvice
+@RequiredArgsConstructor
+@Slf4j
+public class AdmissionExceptionHandler {
+
+    private final Messages messages;
+
+    @ExceptionHandler(RateLimitedException.class)
+    public ResponseEntity<ProblemDetail> handleRateLimited(RateLimitedException e) {
+        return rejected(HttpStatus.TOO_MANY_REQUESTS, messages.get(REQUEST_RATE_LIMITED), e);
+    }
+
+    @ExceptionHandler(OverloadedException.class)
+    public ResponseEntity<ProblemDetail> handleOverloaded(OverloadedException e) {
+        return rejected(HttpStatus.SERVICE_UNAVAILABLE, messages.get(REQUEST_OVERLOADED), e);
+    }
+
+    private static ResponseEntity<ProblemDetail> rejected(HttpStatus status, String detail, RequestRejectedException e) {
+        log.debug("Request rejected with {}: {}", status.value(), e.getMessage());
+        long seconds = Math.max(1, (e.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(seconds))
+                .body(ProblemDetail.forStatusAndDetail(status, detail));
+    }
+
+}
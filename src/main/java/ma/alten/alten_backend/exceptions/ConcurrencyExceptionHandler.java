@@ -0,0 +1,41 @@
+package ma.alten.alten_backend.exceptions;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.alten.alten_backend.config.Messages;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import static ma.alten.alten_backend.util.constants.GlobalConstants.PRODUCT_CONCURRENT_UPDATE;
+
+/**
+ * Status codes of the concurrent update failures: a stale {@code If-Match} version is a 412, a write
+ * losing the race against another one or a stock adjustment that cannot be applied is a 409.
+ */
+@RestControllerAdvice
+@RequiredArgsConstructor
+@Slf4j
+public class ConcurrencyExceptionHandler {
+
+    private final Messages messages;
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ProblemDetail handlePreconditionFailed(PreconditionFailedException e) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.PRECONDITION_FAILED, e.getMessage());
+    }
+
+    @ExceptionHandler(InsufficientStockException.class)
+    public ProblemDetail handleInsufficientStock(InsufficientStockException e) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, e.getMessage());
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ProblemDetail handleOptimisticLockingFailure(OptimisticLockingFailureException e) {
+        log.debug("Concurrent product update rejected", e);
+        return ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, messages.get(PRODUCT_CONCURRENT_UPDATE));
+    }
+
+}
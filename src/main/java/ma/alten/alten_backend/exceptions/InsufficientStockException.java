@@ -0,0 +1,9 @@
+package ma.alten.alten_backend.exceptions;
+
+public class InsufficientStockException extends FunctionalException {
+
+    public InsufficientStockException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,12 @@
+package ma.alten.alten_backend.exceptions;
+
+/**
+ * A request parameter out of its accepted range or malformed, answered with a 400.
+ */
+public class InvalidRequestException extends FunctionalException {
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+
+}
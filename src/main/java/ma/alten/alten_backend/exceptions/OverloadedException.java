@@ -0,0 +1,11 @@
+package ma.alten.alten_backend.exceptions;
+
+import java.time.Duration;
+
+public class OverloadedException extends RequestRejectedException {
+
+    public OverloadedException(String message, Duration retryAfter) {
+        super(message, retryAfter);
+    }
+
+}
@@ -0,0 +1,9 @@
+package ma.alten.alten_backend.exceptions;
+
+public class PreconditionFailedException extends FunctionalException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,11 @@
+package ma.alten.alten_backend.exceptions;
+
+import java.time.Duration;
+
+public class RateLimitedException extends RequestRejectedException {
+
+    public RateLimitedException(String message, Duration retryAfter) {
+        super(message, retryAfter);
+    }
+
+}
@@ -0,0 +1,20 @@
+package ma.alten.alten_backend.exceptions;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * A request turned away before reaching the database, with the delay after which it may be retried.
+ */
+@Getter
+public class RequestRejectedException extends FunctionalException {
+
+    private final transient Duration retryAfter;
+
+    public RequestRejectedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+}
@@ -2,20 +2,85 @@ package ma.alten.alten_backend.mapper;
 
 
 import ma.alten.alten_backend.dto.ProductDto;
+import ma.alten.alten_backend.enumeration.InventoryStatus;
 import ma.alten.alten_backend.model.Product;
+import ma.alten.alten_backend.service.CategoryDictionary;
+import org.mapstruct.BeanMapping;
+import org.mapstruct.Builder;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.NullValuePropertyMappingStrategy;
+import org.springframework.beans.factory.annotation.Autowired;
 
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.List;
 
+/**
+ * Products expose their category by name, translated from and to the stored category id by the
+ * {@link CategoryDictionary}; saving a product with a new category name creates the category.
+ */
 @Mapper(componentModel = "spring")
-public interface ProductMapper {
+public abstract class ProductMapper {
 
-    ProductDto toProductDto(Product product);
+    protected CategoryDictionary categoryDictionary;
 
-    Product toProduct(ProductDto productDto);
+    @Autowired
+    public void setCategoryDictionary(CategoryDictionary categoryDictionary) {
+        this.categoryDictionary = categoryDictionary;
+    }
 
-    List<ProductDto> toProductDtos(List<Product> products);
+    @Mapping(target = "category", expression = "java(categoryDictionary.name(product.getCategoryId()))")
+    public abstract ProductDto toProductDto(Product product);
 
-    List<Product> toProducts(List<ProductDto> productDTOs);
+    /**
+     * A new product: its id, version and timestamps are assigned when it is saved, never taken from the
+     * client, else a product carrying a version would be merged instead of persisted. Built through its
+     * setters, the Lombok builder does not expose the inherited version and timestamps.
+     */
+    @BeanMapping(builder = @Builder(disableBuilder = true))
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "category", ignore = true)
+    @Mapping(target = "categoryId", expression = "java(categoryDictionary.resolve(productDto.getCategory()))")
+    public abstract Product toProduct(ProductDto productDto);
+
+    public abstract List<ProductDto> toProductDtos(List<Product> products);
+
+    public abstract List<Product> toProducts(List<ProductDto> productDTOs);
+
+    /**
+     * Copies the editable fields onto a loaded product, its id, code and deletion flag are left untouched.
+     */
+    public void updateProduct(ProductDto productDto, Product product) {
+        product.setName(productDto.getName());
+        product.setDescription(productDto.getDescription());
+        product.setImage(productDto.getImage());
+        product.setCategoryId(categoryDictionary.resolve(productDto.getCategory()));
+        product.setPrice(productDto.getPrice());
+        product.setQuantity(productDto.getQuantity());
+        product.setInternalReference(productDto.getInternalReference());
+        product.setShellId(productDto.getShellId());
+        product.setInventoryStatus(InventoryStatus.valueOf(productDto.getInventoryStatus()));
+        product.setRating(productDto.getRating());
+        product.setUpdatedAt(LocalDateTime.now().toInstant(ZoneOffset.UTC));
+    }
+
+    /**
+     * Partial update: only the editable fields present in {@code productDto} are copied, the others keep their value.
+     */
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "code", ignore = true)
+    @Mapping(target = "deleted", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "category", ignore = true)
+    @Mapping(target = "categoryId", expression = "java(productDto.getCategory() == null ? product.getCategoryId() : categoryDictionary.resolve(productDto.getCategory()))")
+    @Mapping(target = "updatedAt", expression = "java(java.time.Instant.now())")
+    public abstract void patchProduct(ProductDto productDto, @MappingTarget Product product);
 
 }
@@ -0,0 +1,41 @@
+package ma.alten.alten_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import ma.alten.alten_backend.enumeration.InventoryStatus;
+
+import java.time.Instant;
+
+/**
+ * Cold copy of a product removed from the product table by the archival job, kept for reference.
+ * Rows are only written by {@code ProductArchiveRepository}, with the id the product had.
+ */
+@Entity
+@Table(name = "product_archive")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedProduct {
+
+    @Id
+    private Long id;
+    private String code;
+    private String name;
+    private String description;
+    @Column(length = 128)
+    private String image;
+    private String category;
+    private Double price;
+    private Integer quantity;
+    private String internalReference;
+    private Long shellId;
+    @Enumerated(EnumType.STRING)
+    private InventoryStatus inventoryStatus;
+    private Double rating;
+    private Instant createdAt;
+    private Instant updatedAt;
+    @Column(nullable = false)
+    private Instant archivedAt;
+
+}
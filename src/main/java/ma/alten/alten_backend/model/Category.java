@@ -0,0 +1,28 @@
+package ma.alten.alten_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Product category, referenced by its integer id from every product. The normalized name, lower
+ * cased with spaces collapsed, is unique so that spellings differing only by case or spacing
+ * resolve to the same category; the name keeps the first spelling seen.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Builder
+@AllArgsConstructor
+public class Category {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "category_seq")
+    @SequenceGenerator(name = "category_seq", sequenceName = "category_seq", allocationSize = 1)
+    private Integer id;
+    @Column(nullable = false)
+    private String name;
+    @Column(nullable = false, unique = true)
+    private String normalizedName;
+
+}
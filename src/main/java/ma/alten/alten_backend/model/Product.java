@@ -4,8 +4,20 @@ import jakarta.persistence.*;
 import lombok.*;
 import ma.alten.alten_backend.enumeration.InventoryStatus;
 import ma.alten.alten_backend.util.BaseEntity;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.SQLRestriction;
 
+/**
+ * Archived products are logically deleted: every entity query, including loads by id, only sees the
+ * active ones. Archived rows are only read through native queries.
+ * <p>
+ * The category is stored as the id of a {@link Category}, written through {@code categoryId}; the
+ * association only declares the foreign key and is never navigated, names come from the
+ * {@code CategoryDictionary}.
+ */
 @Entity
+@Table(indexes = @Index(name = "idx_product_category_listing", columnList = "category_id, deleted, updated_at DESC, id DESC"))
+@SQLRestriction("not deleted")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -14,15 +26,21 @@ import ma.alten.alten_backend.util.BaseEntity;
 public class Product extends BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
     private Long id;
     @Column(unique = true, nullable = false)
     private String code;
     private String name;
     private String description;
-    @Column(nullable = true, length = 64)
+    @Column(nullable = true, length = 128)
     private String image;
-    private String category;
+    @Column(name = "category_id")
+    private Integer categoryId;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "category_id", insertable = false, updatable = false,
+            foreignKey = @ForeignKey(name = "fk_product_category"))
+    private Category category;
     private Double price;
     private Integer quantity;
     private String internalReference;
@@ -30,6 +48,9 @@ public class Product extends BaseEntity {
     @Enumerated(EnumType.STRING)
     private InventoryStatus inventoryStatus;
     private Double rating;
-    private Boolean deleted;
+    @Builder.Default
+    @ColumnDefault("false")
+    @Column(nullable = false)
+    private Boolean deleted = false;
 
 }
@@ -0,0 +1,42 @@
+package ma.alten.alten_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import ma.alten.alten_backend.enumeration.ProductChangeType;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+/**
+ * A product change recorded in the transaction of the write itself. The sequence number is only
+ * given by the relay when the change is published, in publication order, and is the position
+ * consumers of the change feed resume from.
+ */
+@Entity
+@Table(name = "product_outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+@Builder
+@AllArgsConstructor
+public class ProductOutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_outbox_seq")
+    @SequenceGenerator(name = "product_outbox_seq", sequenceName = "product_outbox_seq", allocationSize = 50)
+    private Long id;
+    @Column(nullable = false)
+    private Long productId;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ProductChangeType type;
+    @Column(columnDefinition = "text")
+    private String payload;
+    @CreationTimestamp
+    @Column(updatable = false, nullable = false)
+    private Instant createdAt;
+    @Column(unique = true)
+    private Long sequenceNumber;
+    private Instant publishedAt;
+
+}
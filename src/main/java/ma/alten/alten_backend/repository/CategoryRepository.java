@@ -0,0 +1,28 @@
+package ma.alten.alten_backend.repository;
+
+import jakarta.transaction.Transactional;
+import ma.alten.alten_backend.model.Category;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CategoryRepository extends JpaRepository<Category, Integer> {
+
+    Optional<Category> findByNormalizedName(String normalizedName);
+
+    /**
+     * Creates the category in the current transaction unless one with the same normalized name
+     * exists, waiting for a concurrent insert of the same name to finish first.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO category (id, name, normalized_name) VALUES (nextval('category_seq'), :name, :normalizedName) "
+            + "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name, @Param("normalizedName") String normalizedName);
+
+}
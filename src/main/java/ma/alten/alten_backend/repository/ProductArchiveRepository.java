@@ -0,0 +1,76 @@
+package ma.alten.alten_backend.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Moves archived products from {@code product} to {@code product_archive} with set-based statements,
+ * without loading them as entities, which the active-only restriction of {@code Product} would hide anyway.
+ */
+@Repository
+public class ProductArchiveRepository {
+
+    private static final String COLUMNS = "id, code, name, description, image, category, price, quantity, "
+            + "internal_reference, shell_id, inventory_status, rating, created_at, updated_at";
+    // archived rows keep the category name, they no longer depend on the category table
+    private static final String PRODUCT_COLUMNS = "p.id, p.code, p.name, p.description, p.image, c.name, p.price, p.quantity, "
+            + "p.internal_reference, p.shell_id, p.inventory_status, p.rating, p.created_at, p.updated_at";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public ProductArchiveRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Products archived before {@code cutoff}: a logical deletion is their last update.
+     */
+    public long countArchivedBefore(Instant cutoff) {
+        Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM product WHERE deleted AND updated_at < :cutoff",
+                new MapSqlParameterSource("cutoff", Timestamp.from(cutoff)), Long.class);
+        return count == null ? 0 : count;
+    }
+
+    public List<Long> findArchivedBefore(Instant cutoff, int limit) {
+        return jdbcTemplate.queryForList("SELECT id FROM product WHERE deleted AND updated_at < :cutoff ORDER BY id LIMIT :limit",
+                new MapSqlParameterSource("cutoff", Timestamp.from(cutoff)).addValue("limit", limit), Long.class);
+    }
+
+    /**
+     * Copies the products to the archive table and deletes them, to be run in a single transaction.
+     */
+    public int move(List<Long> ids, Instant archivedAt) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource("ids", ids).addValue("archivedAt", Timestamp.from(archivedAt));
+        jdbcTemplate.update("INSERT INTO product_archive (" + COLUMNS + ", archived_at) "
+                + "SELECT " + PRODUCT_COLUMNS + ", :archivedAt FROM product p LEFT JOIN category c ON c.id = p.category_id "
+                + "WHERE p.deleted AND p.id IN (:ids)", parameters);
+        return jdbcTemplate.update("DELETE FROM product WHERE deleted AND id IN (:ids)", parameters);
+    }
+
+    /**
+     * Renames an image on the rows the {@code Product} entity does not see, archived products in
+     * both tables; returns the number of rows updated.
+     */
+    public int renameImage(String image, String renamed) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource("image", image).addValue("renamed", renamed);
+        return jdbcTemplate.update("UPDATE product SET image = :renamed WHERE image = :image", parameters)
+                + jdbcTemplate.update("UPDATE product_archive SET image = :renamed WHERE image = :image", parameters);
+    }
+
+    /**
+     * Image file names still used by a product, active or archived.
+     */
+    public Set<String> findReferencedImages() {
+        return new HashSet<>(jdbcTemplate.getJdbcTemplate().queryForList(
+                "SELECT image FROM product WHERE image IS NOT NULL "
+                        + "UNION SELECT image FROM product_archive WHERE image IS NOT NULL", String.class));
+    }
+
+}
@@ -0,0 +1,78 @@
+package ma.alten.alten_backend.repository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import ma.alten.alten_backend.service.CodeBlockSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * {@link CodeBlockSource} backed by the {@code product_code_seq} database sequence.
+ * The sequence increments by the block size, so each {@code nextval} reserves a whole block (hi/lo)
+ * and concurrent nodes can never receive overlapping ranges. The configured block size only applies
+ * when the sequence is created: blocks are then sized by the sequence's own increment, which every
+ * node reads back, since values handed out on one increment do not line up with blocks of another.
+ */
+@Repository
+@DependsOn("entityManagerFactory")
+@Slf4j
+public class ProductCodeSequence implements CodeBlockSource {
+
+    private static final String SEQUENCE_NAME = "product_code_seq";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int configuredBlockSize;
+    private int blockSize;
+
+    public ProductCodeSequence(JdbcTemplate jdbcTemplate, @Value("${product.code.block-size:100}") int blockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.configuredBlockSize = blockSize;
+        this.blockSize = blockSize;
+    }
+
+    @PostConstruct
+    void createSequence() {
+        long start = nextFreeCodeNumber();
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + SEQUENCE_NAME + " START WITH " + start + " INCREMENT BY " + configuredBlockSize);
+        String increment = jdbcTemplate.queryForObject(
+                "SELECT CAST(increment AS VARCHAR(20)) FROM information_schema.sequences WHERE lower(sequence_name) = ?",
+                String.class, SEQUENCE_NAME);
+        blockSize = Integer.parseInt(increment.trim());
+        if (blockSize != configuredBlockSize) {
+            log.warn("Product code sequence increments by {}, configured block size {} ignored", blockSize, configuredBlockSize);
+        }
+        log.debug("Product code sequence ready, block size {}", blockSize);
+    }
+
+    @Override
+    public long reserveBlock() {
+        Long start = jdbcTemplate.queryForObject("SELECT nextval('" + SEQUENCE_NAME + "')", Long.class);
+        log.debug("Reserved product code block starting at {}", start);
+        return start;
+    }
+
+    @Override
+    public int blockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Codes are {@code PRODUCTnnn} with at least three digits, so the highest code is the
+     * greatest one among the longest codes.
+     */
+    private long nextFreeCodeNumber() {
+        List<String> codes = jdbcTemplate.queryForList(
+                "SELECT code FROM product WHERE LENGTH(code) = (SELECT MAX(LENGTH(code)) FROM product) ORDER BY code DESC LIMIT 1",
+                String.class);
+        if (codes.isEmpty()) {
+            return 1;
+        }
+        String digits = codes.get(0).replaceAll("\\D+", "");
+        return digits.isEmpty() ? 1 : Long.parseLong(digits) + 1;
+    }
+
+}
@@ -0,0 +1,43 @@
+package ma.alten.alten_backend.repository;
+
+import jakarta.persistence.LockModeType;
+import ma.alten.alten_backend.model.ProductOutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface ProductOutboxRepository extends JpaRepository<ProductOutboxEvent, Long> {
+
+    /**
+     * Oldest unpublished changes, locked so a second relay waits instead of numbering them twice.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM ProductOutboxEvent e WHERE e.sequenceNumber IS NULL ORDER BY e.id")
+    List<ProductOutboxEvent> findPending(Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(e.sequenceNumber), 0) FROM ProductOutboxEvent e")
+    long findLastSequenceNumber();
+
+    @Query("SELECT MIN(e.sequenceNumber) FROM ProductOutboxEvent e")
+    Long findFirstSequenceNumber();
+
+    @Query("SELECT e FROM ProductOutboxEvent e WHERE e.sequenceNumber > :since ORDER BY e.sequenceNumber")
+    List<ProductOutboxEvent> findPublishedAfter(@Param("since") long since, Pageable pageable);
+
+    /**
+     * The last published change is always kept, the next sequence number is derived from it.
+     */
+    @Modifying
+    @Query("DELETE FROM ProductOutboxEvent e WHERE e.publishedAt < :before "
+            + "AND e.sequenceNumber < (SELECT MAX(l.sequenceNumber) FROM ProductOutboxEvent l)")
+    int deletePublishedBefore(@Param("before") Instant before);
+
+}
@@ -1,21 +1,124 @@
 package ma.alten.alten_backend.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import ma.alten.alten_backend.dto.ProductStockGroupDto;
 import ma.alten.alten_backend.model.Product;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
-    Optional<Product> findTopByOrderByCodeDesc();
-    boolean existsByCode(String code);
-
-    @Query("SELECT p FROM Product p WHERE p.deleted = false OR p.deleted IS NULL ORDER BY p.updatedAt DESC")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT p FROM Product p ORDER BY p.updatedAt DESC, p.id DESC")
     Page<Product> findAllWithDeletedIsFalse(Pageable pageable);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT p FROM Product p ORDER BY p.updatedAt DESC, p.id DESC")
+    Slice<Product> findSliceWithDeletedIsFalse(Pageable pageable);
+
+    /**
+     * Archived products, most recently archived first. Native so that the entity's restriction to
+     * active products does not apply.
+     */
+    @Query(value = "SELECT * FROM product WHERE deleted ORDER BY updated_at DESC, id DESC",
+            countQuery = "SELECT count(*) FROM product WHERE deleted", nativeQuery = true)
+    Page<Product> findArchived(Pageable pageable);
+
+    /**
+     * Removes a product whether it is active or archived, returns the number of rows deleted.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "DELETE FROM product WHERE id = :id", nativeQuery = true)
+    int deletePhysically(@Param("id") Long id);
+
+    /**
+     * Loads a product for display only, without the snapshot Hibernate keeps for dirty checking.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT p FROM Product p WHERE p.id = :id")
+    Optional<Product> findReadOnlyById(@Param("id") Long id);
+
+    @Query("SELECT p.id FROM Product p WHERE p.image = :image")
+    List<Long> findIdsByImage(@Param("image") String image);
+
+    /**
+     * Reads a product and locks its row until the end of the transaction, so that the state read is
+     * still the one a following update applies to.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT p FROM Product p WHERE p.id = :id")
+    Optional<Product> findLockedById(@Param("id") Long id);
+
+    /**
+     * Adds {@code delta} to the quantity and derives the inventory status from the result in one
+     * statement, bumping the version. Updates nothing when the quantity would become negative.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.quantity = COALESCE(p.quantity, 0) + :delta, "
+            + "p.inventoryStatus = CASE WHEN COALESCE(p.quantity, 0) + :delta <= 0 THEN ma.alten.alten_backend.enumeration.InventoryStatus.OUTOFSTOCK "
+            + "WHEN COALESCE(p.quantity, 0) + :delta <= :lowStockThreshold THEN ma.alten.alten_backend.enumeration.InventoryStatus.LOWSTOCK "
+            + "ELSE ma.alten.alten_backend.enumeration.InventoryStatus.INSTOCK END, "
+            + "p.version = p.version + 1, p.updatedAt = :updatedAt "
+            + "WHERE p.id = :id AND COALESCE(p.quantity, 0) + :delta >= 0")
+    int adjustQuantity(@Param("id") Long id, @Param("delta") int delta, @Param("lowStockThreshold") int lowStockThreshold,
+                       @Param("updatedAt") Instant updatedAt);
+
+    /**
+     * Cursor over the whole active catalog, must be consumed inside a transaction and closed.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p ORDER BY p.id")
+    Stream<Product> streamAllWithDeletedIsFalse();
+
+    /**
+     * Stock totals of the active catalog per category and inventory status, one row per combination in use.
+     */
+    @Query("SELECT new ma.alten.alten_backend.dto.ProductStockGroupDto(c.name, p.inventoryStatus, COUNT(p), SUM(p.quantity), "
+            + "SUM(p.price * p.quantity)) "
+            + "FROM Product p LEFT JOIN p.category c GROUP BY c.name, p.inventoryStatus")
+    List<ProductStockGroupDto> findStockGroups();
+
+    /**
+     * Substring and fuzzy match on name, code and description served by the {@code pg_trgm} GIN indexes,
+     * best matches first. {@code term} must be lower-case and {@code pattern} its escaped LIKE pattern.
+     */
+    @Query(value = "SELECT p.* FROM product p "
+            + "WHERE NOT p.deleted "
+            + "AND (lower(p.name) LIKE :pattern OR lower(p.code) LIKE :pattern OR lower(p.description) LIKE :pattern "
+            + "OR :term <% lower(p.name)) "
+            + "ORDER BY GREATEST(word_similarity(:term, lower(p.name)), similarity(:term, lower(p.code)), "
+            + "word_similarity(:term, lower(COALESCE(p.description, '')))) DESC, p.id DESC "
+            + "LIMIT :limit", nativeQuery = true)
+    List<Product> searchByRelevance(@Param("term") String term, @Param("pattern") String pattern, @Param("limit") int limit);
+
+    /**
+     * Substring match only, most recent first, for databases where {@code pg_trgm} is not installed.
+     */
+    @Query(value = "SELECT p.* FROM product p "
+            + "WHERE NOT p.deleted "
+            + "AND (lower(p.name) LIKE :pattern OR lower(p.code) LIKE :pattern OR lower(p.description) LIKE :pattern) "
+            + "ORDER BY p.id DESC "
+            + "LIMIT :limit", nativeQuery = true)
+    List<Product> searchByPattern(@Param("pattern") String pattern, @Param("limit") int limit);
+
 }
@@ -0,0 +1,138 @@
+package ma.alten.alten_backend.service;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import ma.alten.alten_backend.enumeration.RequestCost;
+import ma.alten.alten_backend.exceptions.OverloadedException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps the requests in progress at a limit that follows the latency they observe. By Little's law
+ * the concurrency a service sustains is its throughput times its latency: while the latency of
+ * recent requests stays close to its long-run average the limit grows by a small queue allowance,
+ * once it rises the limit shrinks by the ratio of the two, down to half of it per sample.
+ * <p>
+ * Expensive requests may only take {@code expensive-share} of the limit, the rest stays available
+ * to cheap ones so that reads by id keep a bounded latency while listings are shed.
+ */
+@Component
+@ConditionalOnProperty(name = "product.admission.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+
+    // recent latency may exceed the long-run average by this factor before the limit shrinks
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final int LONG_WINDOW = 600;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double expensiveShare;
+    private final Duration retryAfter;
+    private final Ticker ticker;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final MeterRegistry meterRegistry;
+
+    private volatile double limit;
+    private double longRtt;
+
+    @Autowired
+    public AdaptiveConcurrencyLimiter(@Value("${product.admission.concurrency.initial-limit:20}") int initialLimit,
+                                      @Value("${product.admission.concurrency.min-limit:4}") int minLimit,
+                                      @Value("${product.admission.concurrency.max-limit:200}") int maxLimit,
+                                      @Value("${product.admission.concurrency.expensive-share:0.5}") double expensiveShare,
+                                      @Value("${product.admission.concurrency.retry-after:1s}") Duration retryAfter,
+                                      MeterRegistry meterRegistry) {
+        this(initialLimit, minLimit, maxLimit, expensiveShare, retryAfter, meterRegistry, Ticker.systemTicker());
+    }
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double expensiveShare, Duration retryAfter,
+                               MeterRegistry meterRegistry, Ticker ticker) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.expensiveShare = expensiveShare;
+        this.retryAfter = retryAfter;
+        this.ticker = ticker;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("product.admission.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Requests allowed in progress at once")
+                .register(meterRegistry);
+        Gauge.builder("product.admission.in-flight", inFlight, AtomicInteger::get)
+                .description("Requests in progress")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes a slot for a request, to be given back with {@link #release(long)}.
+     *
+     * @return the start time of the request
+     * @throws OverloadedException when the slots this kind of request may use are all taken
+     */
+    public long acquire(RequestCost cost) throws OverloadedException {
+        int allowed = cost == RequestCost.CHEAP ? getLimit() : Math.max(1, (int) (getLimit() * expensiveShare));
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= allowed) {
+                shed(cost).increment();
+                throw new OverloadedException(current + " requests in progress, limit " + allowed + " for " + cost.getValue() + " ones", retryAfter);
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return ticker.read();
+    }
+
+    public void release(long startedAt) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        update(ticker.read() - startedAt, inFlightBefore);
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void update(long rtt, int inFlightBefore) {
+        if (rtt <= 0) {
+            return;
+        }
+        longRtt = longRtt == 0 ? rtt : longRtt + (rtt - longRtt) * 2 / (LONG_WINDOW + 1);
+        // latency went down for good, let the average follow instead of growing the limit for minutes
+        if (longRtt / rtt > 2) {
+            longRtt *= 0.95;
+        }
+        // a mostly idle service learns nothing about how much more it could take
+        if (inFlightBefore < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / rtt));
+        double queueAllowance = Math.max(1, Math.sqrt(limit));
+        double newLimit = limit * (1 - SMOOTHING) + (limit * gradient + queueAllowance) * SMOOTHING;
+        newLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        if ((int) newLimit != (int) limit) {
+            log.debug("Concurrency limit {} -> {}, latency {} us for {} us on average", (int) limit, (int) newLimit, rtt / 1000, (long) longRtt / 1000);
+        }
+        limit = newLimit;
+    }
+
+    private Counter shed(RequestCost cost) {
+        return Counter.builder("product.admission.rejected")
+                .description("Requests turned away before reaching the controllers")
+                .tag("reason", "shed")
+                .tag("cost", cost.getValue())
+                .register(meterRegistry);
+    }
+
+}
@@ -0,0 +1,165 @@
+package ma.alten.alten_backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import ma.alten.alten_backend.model.Category;
+import ma.alten.alten_backend.repository.CategoryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Category names and ids, loaded at startup. Products only store the category id: listings filter
+ * on it after resolving the requested name here, without joining the category table, and products
+ * are mapped back to the name from here too. A category created by another instance is read from
+ * the database the first time it is met; names found missing are remembered for a while so that
+ * searching an unknown category does not cost a query per listing.
+ */
+@Component
+@DependsOn("productSchemaInitializer")
+@Slf4j
+public class CategoryDictionary {
+
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    private final CategoryRepository categoryRepository;
+    private final Map<Integer, String> namesById = new ConcurrentHashMap<>();
+    private final Map<String, Integer> idsByNormalizedName = new ConcurrentHashMap<>();
+    private final Cache<String, Boolean> unknownNormalizedNames;
+
+    @Autowired
+    public CategoryDictionary(CategoryRepository categoryRepository,
+                              @Value("${product.categories.unknown-ttl:60s}") Duration unknownTtl,
+                              @Value("${product.categories.max-unknown:10000}") long maxUnknown) {
+        this(categoryRepository, unknownTtl, maxUnknown, Ticker.systemTicker());
+    }
+
+    CategoryDictionary(CategoryRepository categoryRepository, Duration unknownTtl, long maxUnknown, Ticker ticker) {
+        this.categoryRepository = categoryRepository;
+        this.unknownNormalizedNames = Caffeine.newBuilder()
+                .maximumSize(maxUnknown)
+                .expireAfterWrite(unknownTtl)
+                .ticker(ticker)
+                .build();
+    }
+
+    @PostConstruct
+    public void load() {
+        categoryRepository.findAll().forEach(this::register);
+        log.info("{} product categories loaded", namesById.size());
+    }
+
+    public String name(Integer id) {
+        if (id == null) {
+            return null;
+        }
+        String name = namesById.get(id);
+        if (name != null) {
+            return name;
+        }
+        return categoryRepository.findById(id).map(this::remember).map(Category::getName).orElse(null);
+    }
+
+    /**
+     * Id of the category with this name, ignoring case and spacing; empty when there is none.
+     */
+    public Optional<Integer> find(String name) {
+        String normalizedName = normalize(name);
+        if (normalizedName == null) {
+            return Optional.empty();
+        }
+        Integer id = idsByNormalizedName.get(normalizedName);
+        if (id != null) {
+            return Optional.of(id);
+        }
+        if (unknownNormalizedNames.getIfPresent(normalizedName) != null) {
+            return Optional.empty();
+        }
+        Optional<Category> category = categoryRepository.findByNormalizedName(normalizedName);
+        if (category.isEmpty()) {
+            unknownNormalizedNames.put(normalizedName, Boolean.TRUE);
+        }
+        return category.map(this::remember).map(Category::getId);
+    }
+
+    /**
+     * Id of the category with this name, created in the current transaction when it does not exist
+     * yet, so that it takes no connection besides the caller's. A blank name is no category.
+     */
+    public Integer resolve(String name) {
+        String normalizedName = normalize(name);
+        if (normalizedName == null) {
+            return null;
+        }
+        Integer id = idsByNormalizedName.get(normalizedName);
+        return id != null ? id : create(displayName(name), normalizedName);
+    }
+
+    /**
+     * Trimmed with runs of spaces collapsed, the form a new category is stored with; null for a blank name.
+     */
+    public static String displayName(String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        return SPACES.matcher(name.trim()).replaceAll(" ");
+    }
+
+    /**
+     * Lower cased with runs of spaces collapsed, null for a blank name.
+     */
+    public static String normalize(String name) {
+        String displayName = displayName(name);
+        return displayName == null ? null : displayName.toLowerCase(Locale.ROOT);
+    }
+
+    private Integer create(String name, String normalizedName) {
+        // a concurrent insert of the same name leaves nothing to insert, the lookup then finds its row
+        if (categoryRepository.insertIfAbsent(name, normalizedName) > 0) {
+            log.info("Product category {} created", name);
+        }
+        return categoryRepository.findByNormalizedName(normalizedName)
+                .map(this::remember)
+                .map(Category::getId)
+                .orElseThrow(() -> new IllegalStateException("Product category " + name + " was not created"));
+    }
+
+    /**
+     * Registers a category read inside a transaction once it commits: it may have been created by
+     * that transaction, a rollback would leave an id that does not exist.
+     */
+    private Category remember(Category category) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    register(category);
+                }
+            });
+        } else {
+            register(category);
+        }
+        return category;
+    }
+
+    private Category register(Category category) {
+        namesById.put(category.getId(), category.getName());
+        idsByNormalizedName.put(category.getNormalizedName(), category.getId());
+        unknownNormalizedNames.invalidate(category.getNormalizedName());
+        return category;
+    }
+
+}
@@ -0,0 +1,81 @@
+package ma.alten.alten_backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import ma.alten.alten_backend.enumeration.RequestCost;
+import ma.alten.alten_backend.exceptions.RateLimitedException;
+import ma.alten.alten_backend.util.TokenBucket;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * One token bucket per API client, refilled at {@code permits-per-second} up to {@code burst}.
+ * A cheap request takes one token and an expensive one {@code expensive-cost}, so a client looping
+ * over unfiltered listings runs out long before one reading products by id. Buckets of clients
+ * idle for ten minutes are forgotten.
+ */
+@Component
+@ConditionalOnProperty(name = "product.admission.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class ClientRateLimiter {
+
+    private final double permitsPerSecond;
+    private final double burst;
+    private final double expensiveCost;
+    private final Ticker ticker;
+    private final Cache<String, TokenBucket> buckets;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public ClientRateLimiter(@Value("${product.admission.rate-limit.permits-per-second:50}") double permitsPerSecond,
+                             @Value("${product.admission.rate-limit.burst:100}") double burst,
+                             @Value("${product.admission.rate-limit.expensive-cost:5}") double expensiveCost,
+                             @Value("${product.admission.rate-limit.max-clients:100000}") long maxClients,
+                             MeterRegistry meterRegistry) {
+        this(permitsPerSecond, burst, expensiveCost, maxClients, meterRegistry, Ticker.systemTicker());
+    }
+
+    ClientRateLimiter(double permitsPerSecond, double burst, double expensiveCost, long maxClients,
+                      MeterRegistry meterRegistry, Ticker ticker) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.expensiveCost = expensiveCost;
+        this.ticker = ticker;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .ticker(ticker)
+                .build();
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @throws RateLimitedException when the client has not enough tokens left, with the time until it has
+     */
+    public void acquire(String client, RequestCost cost) throws RateLimitedException {
+        TokenBucket bucket = buckets.get(client, key -> new TokenBucket(burst, permitsPerSecond, ticker.read()));
+        long waitNanos = bucket.tryConsume(cost == RequestCost.EXPENSIVE ? expensiveCost : 1, ticker.read());
+        if (waitNanos > 0) {
+            rejected(cost).increment();
+            log.debug("Client {} rate limited on a {} request", client, cost.getValue());
+            throw new RateLimitedException("Client " + client + " is over its request rate", Duration.ofNanos(waitNanos));
+        }
+    }
+
+    private Counter rejected(RequestCost cost) {
+        return Counter.builder("product.admission.rejected")
+                .description("Requests turned away before reaching the controllers")
+                .tag("reason", "rate_limited")
+                .tag("cost", cost.getValue())
+                .register(meterRegistry);
+    }
+
+}
@@ -0,0 +1,16 @@
+package ma.alten.alten_backend.service;
+
+/**
+ * Hands out disjoint ranges of product code numbers, one shared round-trip per range.
+ */
+public interface CodeBlockSource {
+
+    /**
+     * Reserves the next range and returns its first number, the range covers
+     * {@code [start, start + blockSize())}.
+     */
+    long reserveBlock();
+
+    int blockSize();
+
+}
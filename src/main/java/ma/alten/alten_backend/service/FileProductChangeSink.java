@@ -0,0 +1,48 @@
+package ma.alten.alten_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import ma.alten.alten_backend.dto.ProductChangeDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends the relayed changes to a local NDJSON file, one change per line.
+ */
+@Component
+@ConditionalOnProperty(name = "product.outbox.sink", havingValue = "file")
+@Slf4j
+public class FileProductChangeSink implements ProductChangeSink {
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+
+    public FileProductChangeSink(@Value("${product.outbox.file-path:product-changes.ndjson}") Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public synchronized void publish(List<ProductChangeDto> changes) {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (ProductChangeDto change : changes) {
+                writer.write(objectMapper.writeValueAsString(change));
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.debug("{} product changes appended to {}", changes.size(), file);
+    }
+
+}
@@ -0,0 +1,43 @@
+package ma.alten.alten_backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import ma.alten.alten_backend.dto.ProductChangeDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Keeps the most recently relayed changes in process, for tests and local runs without a broker.
+ */
+@Component
+@ConditionalOnProperty(name = "product.outbox.sink", havingValue = "memory", matchIfMissing = true)
+@Slf4j
+public class InMemoryProductChangeSink implements ProductChangeSink {
+
+    private final int capacity;
+    private final Deque<ProductChangeDto> changes = new ArrayDeque<>();
+
+    public InMemoryProductChangeSink(@Value("${product.outbox.memory-capacity:10000}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized void publish(List<ProductChangeDto> batch) {
+        for (ProductChangeDto change : batch) {
+            changes.addLast(change);
+            if (changes.size() > capacity) {
+                changes.removeFirst();
+            }
+        }
+        log.debug("{} product changes published in memory", batch.size());
+    }
+
+    public synchronized List<ProductChangeDto> published() {
+        return List.copyOf(changes);
+    }
+
+}
@@ -0,0 +1,169 @@
+package ma.alten.alten_backend.service;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import ma.alten.alten_backend.dto.ProductDto;
+import ma.alten.alten_backend.event.ProductChangedEvent;
+import ma.alten.alten_backend.mapper.ProductMapper;
+import ma.alten.alten_backend.model.Product;
+import ma.alten.alten_backend.repository.ProductRepository;
+import ma.alten.alten_backend.util.TextTokenizer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * In-process trigram index, for databases without {@code pg_trgm} such as the embedded ones used in tests.
+ * A search only visits the products sharing a trigram with the term, never the whole catalog.
+ * Built at startup and kept in sync from committed product changes.
+ */
+@Component
+@ConditionalOnProperty(name = "product.search.engine", havingValue = "memory")
+@Slf4j
+public class InMemoryProductSearchEngine implements ProductSearchEngine {
+
+    private static final double MIN_SIMILARITY = 0.5;
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Map<Long, IndexedProduct> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Autowired
+    public InMemoryProductSearchEngine(ProductRepository productRepository, ProductMapper productMapper,
+                                       EntityManager entityManager, PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.entityManager = entityManager;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        log.debug("Start rebuilding in-memory product search index");
+        readOnlyTransactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Product> products = productRepository.streamAllWithDeletedIsFalse()) {
+                products.forEach(product -> {
+                    index(productMapper.toProductDto(product));
+                    entityManager.detach(product);
+                });
+            }
+        });
+        log.debug("End rebuilding in-memory product search index, {} products", documents.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.after() != null) {
+            index(event.after());
+        } else {
+            remove(event.productId());
+        }
+    }
+
+    @Override
+    public List<ProductDto> search(String term, int limit) {
+        String query = TextTokenizer.normalize(term);
+        Set<String> queryTrigrams = TextTokenizer.trigrams(query);
+        if (queryTrigrams.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> sharedTrigrams = new HashMap<>();
+            for (String trigram : queryTrigrams) {
+                for (Long id : postings.getOrDefault(trigram, Set.of())) {
+                    sharedTrigrams.merge(id, 1, Integer::sum);
+                }
+            }
+            List<ScoredProduct> matches = new ArrayList<>();
+            sharedTrigrams.forEach((id, shared) -> {
+                IndexedProduct document = documents.get(id);
+                double similarity = (double) shared / queryTrigrams.size();
+                boolean substring = document.text().contains(query);
+                if (substring || similarity >= MIN_SIMILARITY) {
+                    // exact substring matches always rank above purely fuzzy ones
+                    matches.add(new ScoredProduct(document.product(), substring ? 1 + similarity : similarity));
+                }
+            });
+            return matches.stream()
+                    .sorted(Comparator.comparingDouble(ScoredProduct::score).reversed()
+                            .thenComparing(scored -> scored.product().getId(), Comparator.reverseOrder()))
+                    .limit(limit)
+                    .map(ScoredProduct::product)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void index(ProductDto product) {
+        String text = TextTokenizer.normalize(Stream.of(product.getName(), product.getCode(), product.getDescription())
+                .filter(Objects::nonNull)
+                .collect(Collectors.joining(" ")));
+        Set<String> trigrams = TextTokenizer.trigrams(text);
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(product.getId());
+            documents.put(product.getId(), new IndexedProduct(product, text, trigrams));
+            for (String trigram : trigrams) {
+                postings.computeIfAbsent(trigram, key -> new HashSet<>()).add(product.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeUnlocked(Long id) {
+        IndexedProduct previous = documents.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String trigram : previous.trigrams()) {
+            Set<Long> ids = postings.get(trigram);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                postings.remove(trigram);
+            }
+        }
+    }
+
+    private record IndexedProduct(ProductDto product, String text, Set<String> trigrams) {
+    }
+
+    private record ScoredProduct(ProductDto product, double score) {
+    }
+
+}
@@ -0,0 +1,300 @@
+package ma.alten.alten_backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import ma.alten.alten_backend.dto.InventoryChangeDto;
+import ma.alten.alten_backend.dto.ProductDto;
+import ma.alten.alten_backend.enumeration.ProductChangeType;
+import ma.alten.alten_backend.event.ProductChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes committed stock changes to Server-Sent Events subscribers. Open streams are asynchronous
+ * requests that hold no thread; a small sender pool writes to them. Each subscriber buffers at most
+ * {@code buffer-size} products and keeps only the latest state of each, so a slow client receives
+ * fewer, newer updates and the oldest pending ones are dropped once its buffer is full. A write
+ * blocked for longer than {@code write-timeout} closes its stream, so that a stalled client does
+ * not hold a sender thread the other subscribers wait for.
+ */
+@Service
+@Slf4j
+public class InventoryStreamService {
+
+    private static final String EVENT_NAME = "inventory";
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final CategoryDictionary categoryDictionary;
+    private final ExecutorService sender;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final long writeTimeoutNanos;
+    private final Counter droppedChanges;
+    private final Counter stalledSubscribers;
+
+    @Autowired
+    public InventoryStreamService(CategoryDictionary categoryDictionary,
+                                  @Value("${product.inventory-stream.buffer-size:64}") int bufferSize,
+                                  @Value("${product.inventory-stream.sender-threads:2}") int senderThreads,
+                                  @Value("${product.inventory-stream.timeout:30m}") Duration timeout,
+                                  @Value("${product.inventory-stream.write-timeout:5s}") Duration writeTimeout,
+                                  MeterRegistry meterRegistry) {
+        this.categoryDictionary = categoryDictionary;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeout.toMillis();
+        this.writeTimeoutNanos = writeTimeout.toNanos();
+        AtomicInteger threadNumber = new AtomicInteger();
+        // a subscriber is never queued twice, so the queue is bounded by the number of subscribers
+        this.sender = Executors.newFixedThreadPool(senderThreads,
+                runnable -> new Thread(runnable, "product-inventory-stream-" + threadNumber.incrementAndGet()));
+        Gauge.builder("product.inventory.stream.subscribers", subscribers, Set::size)
+                .description("Open inventory streams")
+                .register(meterRegistry);
+        this.droppedChanges = Counter.builder("product.inventory.stream.dropped")
+                .description("Inventory changes dropped because a subscriber buffer was full")
+                .register(meterRegistry);
+        this.stalledSubscribers = Counter.builder("product.inventory.stream.stalled")
+                .description("Inventory streams closed because a write did not complete within the write timeout")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream of the changes of the given products, or of a category; all products when both are empty.
+     */
+    public SseEmitter subscribe(Set<Long> productIds, String category) {
+        return subscribe(new SseEmitter(timeoutMillis), productIds, category);
+    }
+
+    SseEmitter subscribe(SseEmitter emitter, Set<Long> productIds, String category) {
+        Subscriber subscriber = new Subscriber(emitter, productIds == null ? Set.of() : Set.copyOf(productIds),
+                CategoryDictionary.normalize(category));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        log.debug("Inventory stream opened for products {} category {}, {} open", productIds, category, subscribers.size());
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.type() != ProductChangeType.UPDATED || !inventoryChanged(event.before(), event.after())) {
+            return;
+        }
+        ProductDto product = event.after();
+        Integer categoryId = categoryDictionary.find(product.getCategory()).orElse(null);
+        InventoryChangeDto change = InventoryChangeDto.builder()
+                .productId(product.getId())
+                .code(product.getCode())
+                .category(product.getCategory())
+                .inventoryStatus(product.getInventoryStatus())
+                .quantity(product.getQuantity())
+                .version(product.getVersion())
+                .build();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.accepts(change, categoryId)) {
+                subscriber.offer(change);
+            }
+        }
+    }
+
+    /**
+     * Comments written to idle streams, so proxies keep them open and closed clients are detected.
+     */
+    @Scheduled(fixedDelayString = "${product.inventory-stream.heartbeat-interval:15s}")
+    public void heartbeat() {
+        subscribers.forEach(Subscriber::heartbeat);
+    }
+
+    /**
+     * Closes the streams whose current write has been blocked for longer than the write timeout and
+     * interrupts it, which frees its sender thread.
+     */
+    @Scheduled(fixedDelayString = "${product.inventory-stream.write-check-interval:1s}")
+    public void closeStalledSubscribers() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.writer != null && now - subscriber.writeStartedAt > writeTimeoutNanos && subscribers.remove(subscriber)) {
+                log.debug("Inventory stream closed, a write was blocked for more than {} ms", writeTimeoutNanos / 1_000_000);
+                stalledSubscribers.increment();
+                subscriber.interruptWriter();
+                subscriber.emitter.completeWithError(new TimeoutException("Inventory stream write timed out"));
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        sender.shutdownNow();
+    }
+
+    /**
+     * True when the status or the quantity moved, or when the previous state is unknown.
+     */
+    static boolean inventoryChanged(ProductDto before, ProductDto after) {
+        return before == null || !Objects.equals(before.getInventoryStatus(), after.getInventoryStatus())
+                || !Objects.equals(before.getQuantity(), after.getQuantity());
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Set<Long> productIds;
+        // normalized name, resolved to its id once the category exists
+        private final String category;
+        private volatile Integer categoryId;
+        // set while a sender thread is writing to the stream
+        private volatile long writeStartedAt;
+        private volatile Thread writer;
+        // guarded by this: latest pending change per product, in arrival order
+        private final LinkedHashMap<Long, InventoryChangeDto> pending = new LinkedHashMap<>();
+        private boolean heartbeatDue;
+        private boolean scheduled;
+
+        private Subscriber(SseEmitter emitter, Set<Long> productIds, String category) {
+            this.emitter = emitter;
+            this.productIds = productIds;
+            this.category = category;
+            this.categoryId = category == null ? null : categoryDictionary.find(category).orElse(null);
+        }
+
+        private boolean accepts(InventoryChangeDto change, Integer changeCategoryId) {
+            if (!productIds.isEmpty() && !productIds.contains(change.getProductId())) {
+                return false;
+            }
+            if (category == null) {
+                return true;
+            }
+            if (categoryId == null) {
+                // created since the subscription, unknown names are not looked up again for a while
+                categoryId = categoryDictionary.find(category).orElse(null);
+            }
+            return categoryId != null && categoryId.equals(changeCategoryId);
+        }
+
+        private void offer(InventoryChangeDto change) {
+            synchronized (this) {
+                if (!pending.containsKey(change.getProductId()) && pending.size() >= bufferSize) {
+                    Iterator<Long> oldest = pending.keySet().iterator();
+                    oldest.next();
+                    oldest.remove();
+                    droppedChanges.increment();
+                }
+                pending.put(change.getProductId(), change);
+            }
+            schedule();
+        }
+
+        private void heartbeat() {
+            synchronized (this) {
+                heartbeatDue = true;
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            synchronized (this) {
+                if (scheduled) {
+                    return;
+                }
+                scheduled = true;
+            }
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                log.debug("Inventory stream sender stopped");
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                List<InventoryChangeDto> changes;
+                boolean ping;
+                synchronized (this) {
+                    if (pending.isEmpty() && !heartbeatDue) {
+                        scheduled = false;
+                        return;
+                    }
+                    changes = new ArrayList<>(pending.values());
+                    pending.clear();
+                    ping = heartbeatDue;
+                    heartbeatDue = false;
+                }
+                try {
+                    for (InventoryChangeDto change : changes) {
+                        send(SseEmitter.event().name(EVENT_NAME).data(change));
+                    }
+                    if (ping && changes.isEmpty()) {
+                        send(SseEmitter.event().comment("heartbeat"));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    if (subscribers.remove(this)) {
+                        log.debug("Inventory stream closed by the client: {}", e.getMessage());
+                        emitter.completeWithError(e);
+                    }
+                    synchronized (this) {
+                        pending.clear();
+                    }
+                    return;
+                }
+            }
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) throws IOException {
+            if (!subscribers.contains(this)) {
+                throw new IllegalStateException("Inventory stream closed");
+            }
+            writeStartedAt = System.nanoTime();
+            writer = Thread.currentThread();
+            try {
+                emitter.send(event);
+            } finally {
+                synchronized (this) {
+                    writer = null;
+                }
+                if (!subscribers.contains(this)) {
+                    // an interrupt that arrived as the write completed must not reach the next subscriber
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        private void interruptWriter() {
+            synchronized (this) {
+                if (writer != null) {
+                    writer.interrupt();
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,65 @@
+package ma.alten.alten_backend.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.alten.alten_backend.dto.ProductDto;
+import ma.alten.alten_backend.mapper.ProductMapper;
+import ma.alten.alten_backend.model.Product;
+import ma.alten.alten_backend.repository.ProductRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Search delegated to PostgreSQL, served by the {@code pg_trgm} indexes created at startup. When the
+ * extension could not be installed, searches fall back to plain substring matching without ranking
+ * instead of failing on the missing trigram operators.
+ */
+@Component
+@ConditionalOnProperty(name = "product.search.engine", havingValue = "postgres", matchIfMissing = true)
+@DependsOn("productSchemaInitializer")
+@RequiredArgsConstructor
+@Slf4j
+public class PostgresProductSearchEngine implements ProductSearchEngine {
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final JdbcTemplate jdbcTemplate;
+
+    private boolean trigramAvailable;
+
+    @PostConstruct
+    void detectTrigramExtension() {
+        try {
+            Integer installed = jdbcTemplate.queryForObject("SELECT count(*) FROM pg_extension WHERE extname = 'pg_trgm'", Integer.class);
+            trigramAvailable = installed != null && installed > 0;
+        } catch (DataAccessException e) {
+            // not PostgreSQL
+            trigramAvailable = false;
+        }
+        if (!trigramAvailable) {
+            log.warn("pg_trgm extension missing, product searches fall back to unranked substring matching");
+        }
+    }
+
+    @Override
+    public List<ProductDto> search(String term, int limit) {
+        String normalized = term.toLowerCase(Locale.ROOT);
+        String pattern = "%" + escapeLike(normalized) + "%";
+        List<Product> products = trigramAvailable
+                ? productRepository.searchByRelevance(normalized, pattern, limit)
+                : productRepository.searchByPattern(pattern, limit);
+        return productMapper.toProductDtos(products);
+    }
+
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+}
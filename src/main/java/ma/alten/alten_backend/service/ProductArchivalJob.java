@@ -0,0 +1,127 @@
+package ma.alten.alten_backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import ma.alten.alten_backend.repository.ProductArchiveRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves the products archived for longer than the retention out of the product table, then deletes
+ * the image files no product uses anymore. Products are moved in small batches, one transaction each,
+ * with a pause in between so the job never holds locks or connections for long next to live traffic.
+ */
+@Component
+@Slf4j
+public class ProductArchivalJob {
+
+    private final ProductArchiveRepository productArchiveRepository;
+    private final ProductImageService productImageService;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+    private final int batchSize;
+    private final Duration batchPause;
+    private final Duration imageGracePeriod;
+    private final AtomicLong remaining = new AtomicLong();
+    private final Counter movedProducts;
+    private final Counter deletedImages;
+    private final Timer runTimer;
+
+    @Autowired
+    public ProductArchivalJob(ProductArchiveRepository productArchiveRepository, ProductImageService productImageService,
+                              PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                              @Value("${product.archival.retention:90d}") Duration retention,
+                              @Value("${product.archival.batch-size:500}") int batchSize,
+                              @Value("${product.archival.batch-pause:200ms}") Duration batchPause,
+                              @Value("${product.archival.image-grace-period:1h}") Duration imageGracePeriod) {
+        this.productArchiveRepository = productArchiveRepository;
+        this.productImageService = productImageService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.batchPause = batchPause;
+        this.imageGracePeriod = imageGracePeriod;
+        Gauge.builder("product.archival.remaining", remaining, AtomicLong::get)
+                .description("Products left to move by the running archival")
+                .register(meterRegistry);
+        this.movedProducts = Counter.builder("product.archival.moved")
+                .description("Products moved to the archive table")
+                .register(meterRegistry);
+        this.deletedImages = Counter.builder("product.archival.images.deleted")
+                .description("Orphaned image files deleted")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("product.archival.run")
+                .description("Archival job runs")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${product.archival.cron:0 30 3 * * *}")
+    public void run() {
+        runTimer.record(() -> {
+            long moved = archiveProducts(Instant.now().minus(retention));
+            int images = collectOrphanImages(Instant.now().minus(imageGracePeriod));
+            log.info("Archival done: {} products moved, {} image files deleted", moved, images);
+        });
+    }
+
+    long archiveProducts(Instant cutoff) {
+        long total = productArchiveRepository.countArchivedBefore(cutoff);
+        remaining.set(total);
+        log.info("Archival started: {} products archived before {}", total, cutoff);
+        long moved = 0;
+        while (true) {
+            Integer batch = transactionTemplate.execute(status -> {
+                List<Long> ids = productArchiveRepository.findArchivedBefore(cutoff, batchSize);
+                return ids.isEmpty() ? 0 : productArchiveRepository.move(ids, Instant.now());
+            });
+            if (batch == null || batch == 0) {
+                break;
+            }
+            moved += batch;
+            movedProducts.increment(batch);
+            remaining.set(Math.max(0, total - moved));
+            log.info("Archival progress: {}/{} products moved", moved, total);
+            if (batch < batchSize || !pause()) {
+                break;
+            }
+        }
+        remaining.set(0);
+        return moved;
+    }
+
+    int collectOrphanImages(Instant cutoff) {
+        try {
+            int deleted = productImageService.collectOrphans(productArchiveRepository.findReferencedImages(), cutoff);
+            deletedImages.increment(deleted);
+            return deleted;
+        } catch (IOException e) {
+            log.warn("Orphaned image collection failed", e);
+            return 0;
+        }
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(batchPause.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.info("Archival interrupted");
+            return false;
+        }
+    }
+
+}
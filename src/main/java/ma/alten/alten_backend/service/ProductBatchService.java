@@ -0,0 +1,160 @@
+package ma.alten.alten_backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import ma.alten.alten_backend.config.Messages;
+import ma.alten.alten_backend.dto.BatchUpdateResultDto;
+import ma.alten.alten_backend.dto.ProductDto;
+import ma.alten.alten_backend.enumeration.BatchItemStatus;
+import ma.alten.alten_backend.enumeration.InventoryStatus;
+import ma.alten.alten_backend.event.ProductChangedEvent;
+import ma.alten.alten_backend.exceptions.FunctionalException;
+import ma.alten.alten_backend.mapper.ProductMapper;
+import ma.alten.alten_backend.model.Product;
+import ma.alten.alten_backend.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static ma.alten.alten_backend.util.constants.GlobalConstants.BATCH_TOO_LARGE;
+import static ma.alten.alten_backend.util.constants.GlobalConstants.INVALID_INVENTORY_STATUS;
+import static ma.alten.alten_backend.util.constants.GlobalConstants.PRODUCT_NOT_FOUND;
+import static ma.alten.alten_backend.util.constants.GlobalConstants.PRODUCT_VERSION_MISMATCH;
+
+/**
+ * Multi-product reads and writes costing one round-trip instead of one per product: reads are a
+ * single IN-list query and updates share one transaction whose statements go out as a JDBC batch.
+ */
+@Service
+@Slf4j
+public class ProductBatchService {
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Messages messages;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxReadSize;
+    private final int maxUpdateSize;
+
+    @Autowired
+    public ProductBatchService(ProductRepository productRepository, ProductMapper productMapper,
+                               PlatformTransactionManager transactionManager, Messages messages,
+                               ApplicationEventPublisher eventPublisher,
+                               @Value("${product.batch.max-read-size:500}") int maxReadSize,
+                               @Value("${product.batch.max-update-size:500}") int maxUpdateSize) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.messages = messages;
+        this.eventPublisher = eventPublisher;
+        this.maxReadSize = maxReadSize;
+        this.maxUpdateSize = maxUpdateSize;
+    }
+
+    /**
+     * Products in the order of the requested ids, unknown ids are left out.
+     */
+    public List<ProductDto> getProducts(List<Long> ids) throws FunctionalException {
+        log.debug("Start service get products by ids, {} ids", ids.size());
+        if (ids.size() > maxReadSize) {
+            throw new FunctionalException(messages.get(BATCH_TOO_LARGE));
+        }
+        Map<Long, Product> products = findAllById(ids);
+        List<ProductDto> productDtos = ids.stream()
+                .distinct()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .map(productMapper::toProductDto)
+                .toList();
+        log.debug("End service get products by ids, {} found", productDtos.size());
+        return productDtos;
+    }
+
+    /**
+     * Applies every update in one transaction and reports a status per item; an unknown id, an
+     * invalid item or one carrying a stale version is reported and skipped without failing the others.
+     * Items are partial, the fields they leave out keep their value.
+     */
+    public List<BatchUpdateResultDto> updateProducts(List<ProductDto> productDtos) throws FunctionalException {
+        log.debug("Start service batch update, {} products", productDtos.size());
+        if (productDtos.size() > maxUpdateSize) {
+            throw new FunctionalException(messages.get(BATCH_TOO_LARGE));
+        }
+        List<BatchUpdateResultDto> results = transactionTemplate.execute(status -> applyUpdates(productDtos));
+        log.debug("End service batch update, {} products", productDtos.size());
+        return results;
+    }
+
+    private List<BatchUpdateResultDto> applyUpdates(List<ProductDto> productDtos) {
+        Map<Long, Product> products = findAllById(productDtos.stream().map(ProductDto::getId).filter(Objects::nonNull).toList());
+        List<BatchUpdateResultDto> results = new ArrayList<>(productDtos.size());
+        Map<Product, ProductDto> updated = new LinkedHashMap<>();
+        for (ProductDto productDto : productDtos) {
+            Product product = productDto.getId() == null ? null : products.get(productDto.getId());
+            if (product == null) {
+                results.add(failure(productDto.getId(), BatchItemStatus.NOT_FOUND, PRODUCT_NOT_FOUND));
+            } else if (!isValidInventoryStatus(productDto.getInventoryStatus())) {
+                results.add(failure(productDto.getId(), BatchItemStatus.INVALID, INVALID_INVENTORY_STATUS));
+            } else if (productDto.getVersion() != null && !productDto.getVersion().equals(product.getVersion())) {
+                results.add(failure(productDto.getId(), BatchItemStatus.CONFLICT, PRODUCT_VERSION_MISMATCH));
+            } else {
+                updated.putIfAbsent(product, productMapper.toProductDto(product));
+                productMapper.patchProduct(productDto, product);
+                results.add(BatchUpdateResultDto.builder()
+                        .id(product.getId())
+                        .status(BatchItemStatus.UPDATED)
+                        .build());
+            }
+        }
+        // one flush sends the updates in JDBC batches, the products then carry the versions written
+        productRepository.flush();
+        Map<Long, ProductDto> afters = new HashMap<>();
+        updated.forEach((product, before) -> {
+            ProductDto after = productMapper.toProductDto(product);
+            afters.put(product.getId(), after);
+            eventPublisher.publishEvent(ProductChangedEvent.updated(before, after));
+        });
+        results.stream()
+                .filter(result -> result.getStatus() == BatchItemStatus.UPDATED)
+                .forEach(result -> result.setProduct(afters.get(result.getId())));
+        return results;
+    }
+
+    private Map<Long, Product> findAllById(List<Long> ids) {
+        return productRepository.findAllById(ids.stream().distinct().toList()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+    }
+
+    private BatchUpdateResultDto failure(Long id, BatchItemStatus status, String messageCode) {
+        return BatchUpdateResultDto.builder()
+                .id(id)
+                .status(status)
+                .message(messages.get(messageCode))
+                .build();
+    }
+
+    private static boolean isValidInventoryStatus(String inventoryStatus) {
+        if (inventoryStatus == null) {
+            return true;
+        }
+        try {
+            InventoryStatus.valueOf(inventoryStatus);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,36 @@
+package ma.alten.alten_backend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.alten.alten_backend.enumeration.ProductChangeType;
+import ma.alten.alten_backend.event.ProductChangedEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import static ma.alten.alten_backend.util.constants.GlobalConstants.PRODUCT_CACHE;
+
+/**
+ * Evicts the cached {@code getProductById} entry of a product once its change is committed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductCacheEvictionListener {
+
+    private final CacheManager cacheManager;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.type() == ProductChangeType.CREATED) {
+            return;
+        }
+        Cache cache = cacheManager.getCache(PRODUCT_CACHE);
+        if (cache != null) {
+            cache.evict(event.productId());
+            log.debug("Evicted product {} from cache", event.productId());
+        }
+    }
+
+}
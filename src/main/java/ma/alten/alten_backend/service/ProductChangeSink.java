@@ -0,0 +1,15 @@
+package ma.alten.alten_backend.service;
+
+import ma.alten.alten_backend.dto.ProductChangeDto;
+
+import java.util.List;
+
+/**
+ * Destination of the changes relayed from the product outbox. A batch that fails is published again,
+ * so implementations receive every change at least once, in sequence number order.
+ */
+public interface ProductChangeSink {
+
+    void publish(List<ProductChangeDto> changes);
+
+}
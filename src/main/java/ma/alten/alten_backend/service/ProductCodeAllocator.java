@@ -0,0 +1,135 @@
+package ma.alten.alten_backend.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Allocates {@code PRODUCTxxx} codes from an in-memory block reserved through a {@link CodeBlockSource}.
+ * The hot path is a single atomic increment; the next block is fetched in the background once the
+ * current one runs low, so inserts never query the product table to find a free code.
+ */
+@Component
+@Slf4j
+public class ProductCodeAllocator {
+
+    private static final String CODE_FORMAT = "PRODUCT%03d";
+
+    private final CodeBlockSource blockSource;
+    private final int refillThreshold;
+    private final ExecutorService refillExecutor;
+    private final AtomicReference<Block> current = new AtomicReference<>(new Block(0, 0));
+
+    // not synchronized: a virtual thread blocked on the database inside a monitor would pin its carrier
+    private final Lock lock = new ReentrantLock();
+
+    // guarded by lock
+    private CompletableFuture<Block> nextBlock;
+
+    @Autowired
+    public ProductCodeAllocator(CodeBlockSource blockSource, @Value("${product.code.refill-threshold:20}") int refillThreshold) {
+        this.blockSource = blockSource;
+        this.refillThreshold = refillThreshold;
+        this.refillExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-code-refill");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public String nextCode() {
+        return String.format(CODE_FORMAT, nextValue());
+    }
+
+    public List<String> nextCodes(int count) {
+        List<String> codes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            codes.add(nextCode());
+        }
+        return codes;
+    }
+
+    long nextValue() {
+        while (true) {
+            Block block = current.get();
+            long value = block.next.getAndIncrement();
+            if (value < block.end) {
+                if (block.end - value <= refillThreshold) {
+                    prefetch();
+                }
+                return value;
+            }
+            advance(block);
+        }
+    }
+
+    private void prefetch() {
+        lock.lock();
+        try {
+            if (nextBlock == null) {
+                nextBlock = CompletableFuture.supplyAsync(this::reserve, refillExecutor);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Swaps in the prefetched block, or reserves one synchronously when the prefetch is missing or failed.
+     * Only the thread that finds {@code exhausted} still current performs the swap.
+     */
+    private void advance(Block exhausted) {
+        lock.lock();
+        try {
+            if (current.get() != exhausted) {
+                return;
+            }
+            Block fresh = null;
+            if (nextBlock != null) {
+                try {
+                    fresh = nextBlock.join();
+                } catch (RuntimeException e) {
+                    log.warn("Background product code block reservation failed, reserving synchronously", e);
+                }
+                nextBlock = null;
+            }
+            current.set(fresh != null ? fresh : reserve());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Block reserve() {
+        return new Block(blockSource.reserveBlock(), blockSource.blockSize());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refillExecutor.shutdownNow();
+    }
+
+    private static final class Block {
+
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long start, int size) {
+            this.next = new AtomicLong(start);
+            this.end = start + size;
+        }
+
+    }
+
+}
@@ -0,0 +1,118 @@
+package ma.alten.alten_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import ma.alten.alten_backend.config.Messages;
+import ma.alten.alten_backend.dto.ProductDto;
+import ma.alten.alten_backend.enumeration.ExportFormat;
+import ma.alten.alten_backend.exceptions.FunctionalException;
+import ma.alten.alten_backend.mapper.ProductMapper;
+import ma.alten.alten_backend.model.Product;
+import ma.alten.alten_backend.repository.ProductRepository;
+import ma.alten.alten_backend.util.CsvUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static ma.alten.alten_backend.util.constants.GlobalConstants.EXPORT_UNSUPPORTED_FORMAT;
+
+/**
+ * Writes the active catalog straight to an output stream. Products are read through a database
+ * cursor and detached as soon as they are written, so memory use does not depend on the catalog size.
+ */
+@Service
+@Slf4j
+public class ProductExportService {
+
+    private static final List<String> CSV_HEADER = List.of("id", "code", "name", "description", "image", "category", "price",
+            "quantity", "internalReference", "shellId", "inventoryStatus", "rating");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Messages messages;
+
+    @Autowired
+    public ProductExportService(ProductRepository productRepository, ProductMapper productMapper, EntityManager entityManager,
+                                PlatformTransactionManager transactionManager, ObjectMapper objectMapper, Messages messages) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.entityManager = entityManager;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.messages = messages;
+    }
+
+    public ExportFormat resolveFormat(String format) throws FunctionalException {
+        return Arrays.stream(ExportFormat.values())
+                .filter(exportFormat -> exportFormat.getValue().equalsIgnoreCase(format))
+                .findFirst()
+                .orElseThrow(() -> new FunctionalException(messages.get(EXPORT_UNSUPPORTED_FORMAT)));
+    }
+
+    public void exportProducts(OutputStream outputStream, ExportFormat format, boolean gzip) throws IOException {
+        log.debug("Start service export products format {} gzip {}", format, gzip);
+        GZIPOutputStream gzipStream = gzip ? new GZIPOutputStream(outputStream, BUFFER_SIZE) : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(gzip ? gzipStream : outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        long exported;
+        try {
+            exported = readOnlyTransactionTemplate.execute(status -> writeProducts(writer, format));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        if (gzipStream != null) {
+            gzipStream.finish();
+        }
+        log.debug("End service export products, {} rows", exported);
+    }
+
+    private long writeProducts(Writer writer, ExportFormat format) {
+        long exported = 0;
+        try (Stream<Product> products = productRepository.streamAllWithDeletedIsFalse()) {
+            if (format == ExportFormat.CSV) {
+                writer.write(CsvUtils.formatLine(CSV_HEADER));
+                writer.write('\n');
+            }
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                Product product = iterator.next();
+                ProductDto productDto = productMapper.toProductDto(product);
+                entityManager.detach(product);
+                writer.write(format == ExportFormat.CSV ? toCsvLine(productDto) : objectMapper.writeValueAsString(productDto));
+                writer.write('\n');
+                exported++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return exported;
+    }
+
+    private static String toCsvLine(ProductDto productDto) {
+        return CsvUtils.formatLine(Arrays.asList(productDto.getId(), productDto.getCode(), productDto.getName(),
+                productDto.getDescription(), productDto.getImage(), productDto.getCategory(), productDto.getPrice(),
+                productDto.getQuantity(), productDto.getInternalReference(), productDto.getShellId(),
+                productDto.getInventoryStatus(), productDto.getRating()));
+    }
+
+}
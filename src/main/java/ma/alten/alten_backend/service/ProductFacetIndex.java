@@ -0,0 +1,420 @@
+package ma.alten.alten_backend.service;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import ma.alten.alten_backend.dto.FacetCountDto;
+import ma.alten.alten_backend.dto.FacetQuery;
+import ma.alten.alten_backend.dto.FacetedSearchResultDto;
+import ma.alten.alten_backend.dto.ProductDto;
+import ma.alten.alten_backend.enumeration.InventoryStatus;
+import ma.alten.alten_backend.event.ProductChangedEvent;
+import ma.alten.alten_backend.mapper.ProductMapper;
+import ma.alten.alten_backend.model.Product;
+import ma.alten.alten_backend.repository.ProductRepository;
+import ma.alten.alten_backend.util.TextTokenizer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-process search index over active products returning results and facet counts in one call.
+ * Each product gets a dense document number; words, categories and inventory statuses map to bitsets
+ * of document numbers and prices live in a primitive array kept sorted for range queries, so a query
+ * is a handful of bitset intersections. Facets are disjunctive: the counts of one facet ignore the
+ * filter on that same facet, so clients can show the alternatives.
+ * <p>
+ * Change events may be delivered out of order, an update is only applied when its version is newer
+ * than the indexed one. Removed products leave empty document numbers behind; once they outnumber the
+ * indexed products the documents are renumbered, keeping their order.
+ */
+@Component
+@Slf4j
+public class ProductFacetIndex {
+
+    // empty document numbers tolerated before compacting, whatever the catalog size
+    private static final int MIN_COMPACTION_SLOTS = 1024;
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final double[] priceBucketBounds;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> documentsByProductId = new HashMap<>();
+    private final List<ProductDto> documents = new ArrayList<>();
+    private final List<Set<String>> documentWords = new ArrayList<>();
+    private final BitSet alive = new BitSet();
+    private final Map<String, BitSet> words = new HashMap<>();
+    private final Map<String, BitSet> categories = new HashMap<>();
+    private final Map<InventoryStatus, BitSet> inventoryStatuses = new EnumMap<>(InventoryStatus.class);
+    private double[] prices = new double[0];
+    private int emptySlots;
+
+    // price order, rebuilt lazily after writes
+    private double[] sortedPrices = new double[0];
+    private int[] sortedDocuments = new int[0];
+    private volatile boolean priceOrderStale;
+
+    @Autowired
+    public ProductFacetIndex(ProductRepository productRepository, ProductMapper productMapper, EntityManager entityManager,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${product.facets.price-buckets:0,10,50,100,500}") double[] priceBucketBounds) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.entityManager = entityManager;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.priceBucketBounds = priceBucketBounds.clone();
+        Arrays.sort(this.priceBucketBounds);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        log.debug("Start rebuilding product facet index");
+        lock.writeLock().lock();
+        try {
+            clearUnlocked();
+            readOnlyTransactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Product> products = productRepository.streamAllWithDeletedIsFalse()) {
+                    products.forEach(product -> {
+                        upsertUnlocked(productMapper.toProductDto(product));
+                        entityManager.detach(product);
+                    });
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("End rebuilding product facet index, {} products", alive.cardinality());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.after() != null) {
+            upsert(event.after());
+        } else {
+            remove(event.productId());
+        }
+    }
+
+    public FacetedSearchResultDto search(FacetQuery query) {
+        refreshPriceOrder();
+        lock.readLock().lock();
+        try {
+            BitSet base = (BitSet) alive.clone();
+            for (String word : TextTokenizer.words(query.text())) {
+                base.and(words.getOrDefault(word, new BitSet()));
+            }
+            BitSet categoryFilter = query.category() == null ? null : categories.getOrDefault(query.category(), new BitSet());
+            BitSet statusFilter = query.inventoryStatus() == null ? null : inventoryStatuses.getOrDefault(query.inventoryStatus(), new BitSet());
+            BitSet priceFilter = query.minPrice() == null && query.maxPrice() == null ? null : priceRange(query.minPrice(), query.maxPrice());
+
+            BitSet result = intersect(base, categoryFilter, statusFilter, priceFilter);
+            return FacetedSearchResultDto.builder()
+                    .total(result.cardinality())
+                    .products(page(result, query.page(), query.size()))
+                    .categories(counts(categories, intersect(base, statusFilter, priceFilter)))
+                    .inventoryStatuses(counts(inventoryStatuses, intersect(base, categoryFilter, priceFilter)))
+                    .priceRanges(priceCounts(intersect(base, categoryFilter, statusFilter)))
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void upsert(ProductDto product) {
+        lock.writeLock().lock();
+        try {
+            upsertUnlocked(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            Integer document = documentsByProductId.remove(productId);
+            if (document != null) {
+                clearDocument(document);
+                emptySlots++;
+                if (emptySlots > MIN_COMPACTION_SLOTS && emptySlots > alive.cardinality()) {
+                    compact();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int slots() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void upsertUnlocked(ProductDto product) {
+        Integer existing = documentsByProductId.get(product.getId());
+        int document;
+        if (existing != null) {
+            if (!isNewer(product, documents.get(existing))) {
+                log.debug("Skipping stale index update of product {} at version {}", product.getId(), product.getVersion());
+                return;
+            }
+            document = existing;
+            clearDocument(document);
+        } else {
+            document = documents.size();
+            documentsByProductId.put(product.getId(), document);
+            documents.add(null);
+            documentWords.add(Set.of());
+        }
+
+        Set<String> productWords = new HashSet<>(TextTokenizer.words(product.getName()));
+        productWords.addAll(TextTokenizer.words(product.getDescription()));
+        for (String word : productWords) {
+            words.computeIfAbsent(word, key -> new BitSet()).set(document);
+        }
+        if (product.getCategory() != null) {
+            categories.computeIfAbsent(product.getCategory(), key -> new BitSet()).set(document);
+        }
+        if (product.getInventoryStatus() != null) {
+            inventoryStatuses.computeIfAbsent(InventoryStatus.valueOf(product.getInventoryStatus()), key -> new BitSet()).set(document);
+        }
+        if (document >= prices.length) {
+            int length = Math.max(16, prices.length * 2);
+            double[] grown = Arrays.copyOf(prices, Math.max(length, document + 1));
+            Arrays.fill(grown, prices.length, grown.length, Double.NaN);
+            prices = grown;
+        }
+        prices[document] = product.getPrice() == null ? Double.NaN : product.getPrice();
+        documents.set(document, product);
+        documentWords.set(document, productWords);
+        alive.set(document);
+        priceOrderStale = true;
+    }
+
+    private static boolean isNewer(ProductDto product, ProductDto indexed) {
+        return indexed == null || indexed.getVersion() == null || product.getVersion() == null
+                || product.getVersion() > indexed.getVersion();
+    }
+
+    /**
+     * Renumbers the indexed products in their current order, dropping the empty document numbers.
+     */
+    private void compact() {
+        List<ProductDto> indexed = new ArrayList<>(alive.cardinality());
+        alive.stream().forEach(document -> indexed.add(documents.get(document)));
+        clearUnlocked();
+        indexed.forEach(this::upsertUnlocked);
+        log.debug("Product facet index compacted, {} products", indexed.size());
+    }
+
+    private void clearUnlocked() {
+        documentsByProductId.clear();
+        documents.clear();
+        documentWords.clear();
+        alive.clear();
+        words.clear();
+        categories.clear();
+        inventoryStatuses.clear();
+        prices = new double[0];
+        emptySlots = 0;
+        priceOrderStale = true;
+    }
+
+    private void clearDocument(int document) {
+        ProductDto previous = documents.get(document);
+        if (previous == null) {
+            return;
+        }
+        for (String word : documentWords.get(document)) {
+            words.get(word).clear(document);
+        }
+        if (previous.getCategory() != null) {
+            categories.get(previous.getCategory()).clear(document);
+        }
+        if (previous.getInventoryStatus() != null) {
+            inventoryStatuses.get(InventoryStatus.valueOf(previous.getInventoryStatus())).clear(document);
+        }
+        prices[document] = Double.NaN;
+        documents.set(document, null);
+        documentWords.set(document, Set.of());
+        alive.clear(document);
+        priceOrderStale = true;
+    }
+
+    private void refreshPriceOrder() {
+        if (!priceOrderStale) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!priceOrderStale) {
+                return;
+            }
+            int[] order = alive.stream()
+                    .filter(document -> !Double.isNaN(prices[document]))
+                    .boxed()
+                    .sorted((left, right) -> Double.compare(prices[left], prices[right]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            double[] orderedPrices = new double[order.length];
+            for (int i = 0; i < order.length; i++) {
+                orderedPrices[i] = prices[order[i]];
+            }
+            sortedDocuments = order;
+            sortedPrices = orderedPrices;
+            priceOrderStale = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private BitSet priceRange(Double minPrice, Double maxPrice) {
+        int from = minPrice == null ? 0 : lowerBound(minPrice);
+        int to = maxPrice == null ? sortedPrices.length : upperBound(maxPrice);
+        BitSet range = new BitSet();
+        for (int i = from; i < to; i++) {
+            range.set(sortedDocuments[i]);
+        }
+        return range;
+    }
+
+    private int lowerBound(double price) {
+        int low = 0;
+        int high = sortedPrices.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedPrices[middle] < price) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int upperBound(double price) {
+        int low = 0;
+        int high = sortedPrices.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedPrices[middle] <= price) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static BitSet intersect(BitSet base, BitSet... filters) {
+        BitSet result = (BitSet) base.clone();
+        for (BitSet filter : filters) {
+            if (filter != null) {
+                result.and(filter);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Most recently indexed products first.
+     */
+    private List<ProductDto> page(BitSet result, int page, int size) {
+        List<ProductDto> products = new ArrayList<>(size);
+        int skip = page * size;
+        for (int document = result.previousSetBit(documents.size() - 1); document >= 0 && products.size() < size;
+             document = result.previousSetBit(document - 1)) {
+            if (skip > 0) {
+                skip--;
+            } else {
+                products.add(documents.get(document));
+            }
+        }
+        return products;
+    }
+
+    private static <K> List<FacetCountDto> counts(Map<K, BitSet> facet, BitSet scope) {
+        List<FacetCountDto> counts = new ArrayList<>();
+        facet.forEach((value, documents) -> {
+            BitSet matching = (BitSet) documents.clone();
+            matching.and(scope);
+            int count = matching.cardinality();
+            if (count > 0) {
+                counts.add(new FacetCountDto(value.toString(), count));
+            }
+        });
+        counts.sort((left, right) -> Long.compare(right.getCount(), left.getCount()));
+        return counts;
+    }
+
+    /**
+     * Buckets include both of their bounds, as {@code searchByPriceRange} does, so that each count is
+     * what the listing returns for that label; a price on a bound is counted in both buckets around it.
+     */
+    private List<FacetCountDto> priceCounts(BitSet scope) {
+        long[] bucketCounts = new long[priceBucketBounds.length + 1];
+        scope.stream().forEach(document -> {
+            double price = prices[document];
+            if (!Double.isNaN(price)) {
+                for (int bucket = 0; bucket < bucketCounts.length; bucket++) {
+                    if (inBucket(bucket, price)) {
+                        bucketCounts[bucket]++;
+                    }
+                }
+            }
+        });
+        List<FacetCountDto> counts = new ArrayList<>(bucketCounts.length);
+        for (int bucket = 0; bucket < bucketCounts.length; bucket++) {
+            counts.add(new FacetCountDto(bucketLabel(bucket), bucketCounts[bucket]));
+        }
+        return counts;
+    }
+
+    private boolean inBucket(int bucket, double price) {
+        return (bucket == 0 || price >= priceBucketBounds[bucket - 1])
+                && (bucket == priceBucketBounds.length || price <= priceBucketBounds[bucket]);
+    }
+
+    /**
+     * Labels use the "min-max" syntax of the listing's {@code searchByPriceRange}, "*" for an open bound.
+     */
+    private String bucketLabel(int bucket) {
+        if (bucket == 0) {
+            return "*-" + format(priceBucketBounds[0]);
+        }
+        if (bucket == priceBucketBounds.length) {
+            return format(priceBucketBounds[bucket - 1]) + "-*";
+        }
+        return format(priceBucketBounds[bucket - 1]) + "-" + format(priceBucketBounds[bucket]);
+    }
+
+    private static String format(double bound) {
+        return bound == Math.rint(bound) ? String.valueOf((long) bound) : String.valueOf(bound);
+    }
+
+}
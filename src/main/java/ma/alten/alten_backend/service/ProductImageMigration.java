@@ -0,0 +1,61 @@
+package ma.alten.alten_backend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.alten.alten_backend.repository.ProductArchiveRepository;
+import ma.alten.alten_backend.repository.ProductRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Moves the images stored before content addressing, named {@code UUID_originalFilename}, to their
+ * content-addressed name: the file is copied, the products using it are pointed at the copy, active
+ * ones with a change event like any image attachment, and the legacy file is then deleted. Only
+ * finds work while such names are referenced, an image that fails is retried on the next start.
+ */
+@Component
+@ConditionalOnProperty(name = "product.images.migrate-legacy", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class ProductImageMigration {
+
+    private final ProductArchiveRepository productArchiveRepository;
+    private final ProductRepository productRepository;
+    private final ProductImageService productImageService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateLegacyImages() {
+        int migrated = 0;
+        for (String image : productArchiveRepository.findReferencedImages()) {
+            if (!ProductImageService.isContentAddressed(image) && migrate(image)) {
+                migrated++;
+            }
+        }
+        if (migrated > 0) {
+            log.info("{} legacy product images renamed after their content", migrated);
+        }
+    }
+
+    private boolean migrate(String image) {
+        try {
+            Optional<String> renamed = productImageService.adoptLegacyImage(image);
+            if (renamed.isEmpty()) {
+                log.warn("Legacy product image {} is referenced but not stored, left as is", image);
+                return false;
+            }
+            productRepository.findIdsByImage(image).forEach(productId -> productImageService.attach(productId, renamed.get()));
+            productArchiveRepository.renameImage(image, renamed.get());
+            productImageService.deleteLegacyImage(image);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not migrate legacy product image {}", image, e);
+            return false;
+        }
+    }
+
+}
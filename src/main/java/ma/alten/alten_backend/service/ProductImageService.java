@@ -0,0 +1,412 @@
+package ma.alten.alten_backend.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import ma.alten.alten_backend.dto.ProductDto;
+import ma.alten.alten_backend.event.ProductChangedEvent;
+import ma.alten.alten_backend.mapper.ProductMapper;
+import ma.alten.alten_backend.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.spi.ImageReaderSpi;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Product image pipeline. The upload is streamed to a temporary file on the request thread without
+ * any database connection held; moving it into place, generating the resized variants and attaching
+ * it to the product run afterwards on a bounded pool, once the product row is committed.
+ * Files are named after the SHA-256 of their content, with the extension of the detected image
+ * format, so an image uploaded many times is stored once whatever its file name and a file name
+ * never designates two different contents.
+ */
+@Service
+@Slf4j
+public class ProductImageService {
+
+    private static final String TEMP_DIRECTORY = ".tmp";
+    private static final long TRANSFER_CHUNK = 8L * 1024 * 1024;
+    private static final int ATTACH_ATTEMPTS = 3;
+    private static final Pattern IMAGE_FILE_NAME = Pattern.compile("[0-9a-f]{64}(\\.[a-z0-9]{1,10})?");
+    private static final Pattern EXTENSION = Pattern.compile("[a-z0-9]{1,10}");
+    private static final Pattern VARIANT_FILE_NAME = Pattern.compile("([0-9a-f]{64})_w\\d+(\\.[a-z0-9]{1,10})?");
+    // spellings of the same format, used when the content is not an image ImageIO recognizes
+    private static final Map<String, String> EXTENSION_ALIASES = Map.of("jpeg", "jpg", "jpe", "jpg", "jfif", "jpg", "tiff", "tif");
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Path storagePath;
+    private final Path tempPath;
+    private final int[] variantWidths;
+    private final ThreadPoolExecutor executor;
+
+    @Autowired
+    public ProductImageService(ProductRepository productRepository, ProductMapper productMapper,
+                               PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher,
+                               @Value("${product.images.storage-path:product-images}") String storagePath,
+                               @Value("${product.images.variant-widths:160,640}") int[] variantWidths,
+                               @Value("${product.images.processing-threads:2}") int processingThreads,
+                               @Value("${product.images.queue-capacity:100}") int queueCapacity) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.storagePath = Paths.get(storagePath);
+        this.tempPath = this.storagePath.resolve(TEMP_DIRECTORY);
+        this.variantWidths = variantWidths.clone();
+        AtomicInteger threadNumber = new AtomicInteger();
+        // a full queue makes the uploading thread process its own image, slowing uploads down instead of dropping them
+        this.executor = new ThreadPoolExecutor(processingThreads, processingThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "product-image-" + threadNumber.incrementAndGet()),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        try {
+            Files.createDirectories(tempPath);
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de la création du répertoire de stockage des images", e);
+        }
+    }
+
+    /**
+     * Streams the upload to a temporary file of the storage directory, which keeps the final move atomic.
+     */
+    public StagedImage stage(MultipartFile imageFile) throws IOException {
+        Path tempFile = Files.createTempFile(tempPath, "upload-", ".part");
+        MessageDigest digest = sha256();
+        try (InputStream inputStream = new DigestInputStream(imageFile.getInputStream(), digest);
+             ReadableByteChannel source = Channels.newChannel(inputStream);
+             FileChannel target = FileChannel.open(tempFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = 0;
+            long transferred;
+            while ((transferred = target.transferFrom(source, position, TRANSFER_CHUNK)) > 0) {
+                position += transferred;
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        return new StagedImage(tempFile, imageFile.getOriginalFilename(), HexFormat.of().formatHex(digest.digest()));
+    }
+
+    /**
+     * A stored image, or one of its variants when {@code width} is given. Empty for names that do
+     * not designate a stored file, which also rules out any path outside of the storage directory.
+     */
+    public Optional<Path> findImage(String imageFileName, Integer width) {
+        if (!IMAGE_FILE_NAME.matcher(imageFileName).matches()) {
+            return Optional.empty();
+        }
+        Path image = storagePath.resolve(width == null ? imageFileName : variantFileName(imageFileName, width));
+        return Files.isRegularFile(image) ? Optional.of(image) : Optional.empty();
+    }
+
+    /**
+     * True for the names images are stored under, the SHA-256 of their content and an extension.
+     */
+    public static boolean isContentAddressed(String imageFileName) {
+        return IMAGE_FILE_NAME.matcher(imageFileName).matches();
+    }
+
+    /**
+     * Stores a copy of an image saved under a name that is not content addressed, with its variants,
+     * and returns its content-addressed name. Empty when there is no such file in the storage directory.
+     * The legacy file is left in place until nothing references it any more.
+     */
+    public Optional<String> adoptLegacyImage(String legacyFileName) throws IOException {
+        Optional<Path> legacyImage = legacyImage(legacyFileName);
+        if (legacyImage.isEmpty()) {
+            return Optional.empty();
+        }
+        Path tempFile = Files.createTempFile(tempPath, "legacy-", ".part");
+        MessageDigest digest = sha256();
+        try (InputStream inputStream = new DigestInputStream(Files.newInputStream(legacyImage.get()), digest)) {
+            Files.copy(inputStream, tempFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        StagedImage stagedImage = new StagedImage(tempFile, legacyFileName, HexFormat.of().formatHex(digest.digest()));
+        String imageFileName = imageFileName(stagedImage);
+        if (store(stagedImage, imageFileName)) {
+            // a copy keeps the legacy file's age, which orphan collection would take for an abandoned one
+            Files.setLastModifiedTime(storagePath.resolve(imageFileName), FileTime.from(Instant.now()));
+            generateVariants(imageFileName);
+        }
+        return Optional.of(imageFileName);
+    }
+
+    public void deleteLegacyImage(String legacyFileName) throws IOException {
+        Optional<Path> legacyImage = legacyImage(legacyFileName);
+        if (legacyImage.isPresent()) {
+            Files.delete(legacyImage.get());
+        }
+    }
+
+    /**
+     * Moves the staged image into place, generates its variants and then sets it on the product.
+     */
+    public void process(Long productId, StagedImage stagedImage) {
+        executor.execute(() -> {
+            try {
+                String imageFileName = imageFileName(stagedImage);
+                if (store(stagedImage, imageFileName)) {
+                    try {
+                        generateVariants(imageFileName);
+                    } catch (IOException e) {
+                        log.warn("Could not generate the variants of {}", imageFileName, e);
+                    }
+                }
+                attach(productId, imageFileName);
+            } catch (IOException | RuntimeException e) {
+                log.error("Image processing failed for product {}", productId, e);
+                discard(stagedImage);
+            }
+        });
+    }
+
+    /**
+     * Deletes the stored images, with their variants, that are not in {@code referencedImages}, and
+     * abandoned uploads. Files modified after {@code cutoff} are kept: an image is stored before it
+     * is attached to its product. Returns the number of files deleted.
+     */
+    public int collectOrphans(Set<String> referencedImages, Instant cutoff) throws IOException {
+        int deleted = 0;
+        List<Path> files;
+        try (Stream<Path> entries = Files.list(storagePath)) {
+            files = entries.filter(Files::isRegularFile).toList();
+        }
+        for (Path file : files) {
+            String fileName = file.getFileName().toString();
+            Matcher variant = VARIANT_FILE_NAME.matcher(fileName);
+            String imageFileName = variant.matches() ? variant.group(1) + Objects.toString(variant.group(2), "") : fileName;
+            Path image = storagePath.resolve(imageFileName);
+            // a variant is as recent as its image, which is touched when uploaded again
+            Path reference = Files.exists(image) ? image : file;
+            if (!referencedImages.contains(imageFileName) && isOlderThan(reference, cutoff) && Files.deleteIfExists(file)) {
+                deleted++;
+            }
+        }
+        try (Stream<Path> entries = Files.list(tempPath)) {
+            for (Path staged : entries.filter(Files::isRegularFile).toList()) {
+                if (isOlderThan(staged, cutoff) && Files.deleteIfExists(staged)) {
+                    deleted++;
+                }
+            }
+        }
+        return deleted;
+    }
+
+    public void discard(StagedImage stagedImage) {
+        try {
+            Files.deleteIfExists(stagedImage.file());
+        } catch (IOException e) {
+            log.warn("Could not delete staged image {}", stagedImage.file(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Image processing still running at shutdown");
+        }
+    }
+
+    /**
+     * Moves the staged file into place, false when the same content is already stored.
+     */
+    private boolean store(StagedImage stagedImage, String imageFileName) throws IOException {
+        Path image = storagePath.resolve(imageFileName);
+        if (Files.exists(image)) {
+            Files.delete(stagedImage.file());
+            // restarts the grace period, the file is about to be referenced again
+            Files.setLastModifiedTime(image, FileTime.from(Instant.now()));
+            return false;
+        }
+        Files.move(stagedImage.file(), image, StandardCopyOption.ATOMIC_MOVE);
+        return true;
+    }
+
+    private Optional<Path> legacyImage(String legacyFileName) {
+        Path legacyImage = storagePath.resolve(legacyFileName).normalize();
+        if (!storagePath.normalize().equals(legacyImage.getParent()) || !Files.isRegularFile(legacyImage)) {
+            return Optional.empty();
+        }
+        return Optional.of(legacyImage);
+    }
+
+    private static String imageFileName(StagedImage stagedImage) throws IOException {
+        String extension = detectedExtension(stagedImage.file()).orElseGet(() -> uploadExtension(stagedImage.originalFilename()));
+        return extension == null ? stagedImage.sha256() : stagedImage.sha256() + "." + extension;
+    }
+
+    /**
+     * The usual extension of the image format read from the content, the same for every upload of it.
+     */
+    private static Optional<String> detectedExtension(Path file) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = input == null ? Collections.emptyIterator() : ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return Optional.empty();
+            }
+            ImageReader reader = readers.next();
+            try {
+                ImageReaderSpi provider = reader.getOriginatingProvider();
+                String[] suffixes = provider == null ? new String[0] : provider.getFileSuffixes();
+                return suffixes.length == 0 || !EXTENSION.matcher(suffixes[0]).matches() ? Optional.empty() : Optional.of(suffixes[0]);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static String uploadExtension(String originalFilename) {
+        String extension = StringUtils.getFilenameExtension(originalFilename);
+        if (extension == null || !EXTENSION.matcher(extension.toLowerCase(Locale.ROOT)).matches()) {
+            return null;
+        }
+        String lowerCase = extension.toLowerCase(Locale.ROOT);
+        return EXTENSION_ALIASES.getOrDefault(lowerCase, lowerCase);
+    }
+
+    private void generateVariants(String imageFileName) throws IOException {
+        String extension = StringUtils.getFilenameExtension(imageFileName);
+        if (extension == null || !ImageIO.getImageWritersBySuffix(extension).hasNext()) {
+            return;
+        }
+        BufferedImage image = ImageIO.read(storagePath.resolve(imageFileName).toFile());
+        if (image == null) {
+            log.debug("{} is not a readable image, no variant generated", imageFileName);
+            return;
+        }
+        for (int width : variantWidths) {
+            if (image.getWidth() <= width) {
+                continue;
+            }
+            BufferedImage variant = resize(image, width, extension);
+            Path variantFile = tempPath.resolve(UUID.randomUUID() + ".part");
+            if (!ImageIO.write(variant, extension.toLowerCase(Locale.ROOT), variantFile.toFile())) {
+                Files.deleteIfExists(variantFile);
+                continue;
+            }
+            Files.move(variantFile, storagePath.resolve(variantFileName(imageFileName, width)), StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    /**
+     * Retried when the product is updated concurrently, this write only touches the image.
+     */
+    void attach(Long productId, String imageFileName) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                attachOnce(productId, imageFileName);
+                return;
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt == ATTACH_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Product {} changed while attaching its image, retrying", productId);
+            }
+        }
+    }
+
+    private void attachOnce(Long productId, String imageFileName) {
+        // the file may be shared with other products, it is left in place if this one is gone
+        transactionTemplate.executeWithoutResult(status -> productRepository.findById(productId).ifPresentOrElse(product -> {
+            ProductDto before = productMapper.toProductDto(product);
+            product.setImage(imageFileName);
+            productRepository.flush();
+            eventPublisher.publishEvent(ProductChangedEvent.updated(before, productMapper.toProductDto(product)));
+        }, () -> log.debug("Product {} deleted before its image {} was attached", productId, imageFileName)));
+    }
+
+    static String variantFileName(String imageFileName, int width) {
+        int dot = imageFileName.lastIndexOf('.');
+        if (dot < 0) {
+            return imageFileName + "_w" + width;
+        }
+        return imageFileName.substring(0, dot) + "_w" + width + imageFileName.substring(dot);
+    }
+
+    private static boolean isOlderThan(Path file, Instant cutoff) throws IOException {
+        try {
+            return Files.getLastModifiedTime(file).toInstant().isBefore(cutoff);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static BufferedImage resize(BufferedImage image, int width, String extension) {
+        int height = Math.max(1, Math.round((float) image.getHeight() * width / image.getWidth()));
+        boolean opaque = "jpg".equalsIgnoreCase(extension) || "jpeg".equalsIgnoreCase(extension);
+        BufferedImage resized = new BufferedImage(width, height, opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = resized.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return resized;
+    }
+
+    public record StagedImage(Path file, String originalFilename, String sha256) {
+    }
+
+}
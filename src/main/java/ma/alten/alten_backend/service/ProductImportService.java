@@ -0,0 +1,269 @@
+package ma.alten.alten_backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import lombok.extern.slf4j.Slf4j;
+import ma.alten.alten_backend.config.Messages;
+import ma.alten.alten_backend.dto.ImportChunkReportDto;
+import ma.alten.alten_backend.dto.ImportReportDto;
+import ma.alten.alten_backend.dto.ImportRowErrorDto;
+import ma.alten.alten_backend.dto.ProductDto;
+import ma.alten.alten_backend.enumeration.InventoryStatus;
+import ma.alten.alten_backend.event.ProductChangedEvent;
+import ma.alten.alten_backend.exceptions.FunctionalException;
+import ma.alten.alten_backend.mapper.ProductMapper;
+import ma.alten.alten_backend.model.Product;
+import ma.alten.alten_backend.repository.ProductRepository;
+import ma.alten.alten_backend.util.CsvUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+import static ma.alten.alten_backend.util.constants.GlobalConstants.IMPORT_EMPTY;
+import static ma.alten.alten_backend.util.constants.GlobalConstants.IMPORT_UNKNOWN_COLUMN;
+import static ma.alten.alten_backend.util.constants.GlobalConstants.IMPORT_UNSUPPORTED_FORMAT;
+
+/**
+ * Streams a CSV or NDJSON catalog from the request body, one line at a time, and writes it in
+ * chunks: codes are allocated per chunk and every chunk is inserted through JDBC batching in its
+ * own transaction, so a failing chunk never rolls back the rows imported before it.
+ */
+@Service
+@Slf4j
+public class ProductImportService {
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType(TEXT_CSV_VALUE);
+
+    private static final List<String> CSV_COLUMNS = List.of("id", "code", "name", "description", "image", "category", "price",
+            "quantity", "internalreference", "shellid", "inventorystatus", "rating");
+    private static final String BYTE_ORDER_MARK = "\uFEFF";
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final ProductCodeAllocator productCodeAllocator;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Messages messages;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+
+    @Autowired
+    public ProductImportService(ProductRepository productRepository, ProductMapper productMapper, ProductCodeAllocator productCodeAllocator,
+                                EntityManager entityManager, PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                                Messages messages, ApplicationEventPublisher eventPublisher,
+                                @Value("${product.import.chunk-size:1000}") int chunkSize) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.productCodeAllocator = productCodeAllocator;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.messages = messages;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+    }
+
+    public ImportReportDto importProducts(InputStream inputStream, MediaType contentType) throws FunctionalException, IOException {
+        log.debug("Start service import products content type {}", contentType);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        RowParser rowParser;
+        long lineNumber = 0;
+        if (TEXT_CSV.isCompatibleWith(contentType)) {
+            String header = reader.readLine();
+            if (header == null) {
+                throw new FunctionalException(messages.get(IMPORT_EMPTY));
+            }
+            lineNumber++;
+            List<String> columns = csvColumns(header);
+            rowParser = (rowNumber, line) -> parseCsvRow(columns, rowNumber, line);
+        } else if (MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)) {
+            rowParser = this::parseJsonRow;
+        } else {
+            throw new FunctionalException(messages.get(IMPORT_UNSUPPORTED_FORMAT));
+        }
+
+        List<ImportChunkReportDto> chunks = new ArrayList<>();
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            chunk.add(rowParser.parse(lineNumber, line));
+            if (chunk.size() == chunkSize) {
+                chunks.add(writeChunk(chunks.size(), chunk));
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(writeChunk(chunks.size(), chunk));
+        }
+
+        long importedRows = chunks.stream().mapToLong(ImportChunkReportDto::getImportedRows).sum();
+        long failedRows = chunks.stream().mapToLong(ImportChunkReportDto::getFailedRows).sum();
+        log.debug("End service import products, imported {} failed {}", importedRows, failedRows);
+        return ImportReportDto.builder()
+                .totalRows(importedRows + failedRows)
+                .importedRows(importedRows)
+                .failedRows(failedRows)
+                .chunks(chunks)
+                .build();
+    }
+
+    private ImportChunkReportDto writeChunk(int chunkIndex, List<ImportRow> rows) {
+        List<ImportRowErrorDto> errors = new ArrayList<>();
+        List<ImportRow> validRows = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            if (row.error() != null) {
+                errors.add(new ImportRowErrorDto(row.rowNumber(), row.error()));
+            } else {
+                validRows.add(row);
+            }
+        }
+
+        int importedRows = 0;
+        if (!validRows.isEmpty()) {
+            List<String> codes = productCodeAllocator.nextCodes(validRows.size());
+            List<ProductDto> productDtos = new ArrayList<>(validRows.size());
+            for (int i = 0; i < validRows.size(); i++) {
+                ProductDto productDto = validRows.get(i).product();
+                productDto.setId(null);
+                productDto.setCode(codes.get(i));
+                productDtos.add(productDto);
+            }
+            List<Product> products = productMapper.toProducts(productDtos);
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    productRepository.saveAll(products).forEach(product ->
+                            eventPublisher.publishEvent(ProductChangedEvent.created(productMapper.toProductDto(product))));
+                    entityManager.flush();
+                    entityManager.clear();
+                });
+                importedRows = products.size();
+            } catch (DataAccessException | PersistenceException e) {
+                log.warn("Import chunk {} rolled back", chunkIndex, e);
+                String message = "Chunk rolled back: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+                validRows.forEach(row -> errors.add(new ImportRowErrorDto(row.rowNumber(), message)));
+            }
+        }
+
+        errors.sort(Comparator.comparingLong(ImportRowErrorDto::getRowNumber));
+        return ImportChunkReportDto.builder()
+                .chunkIndex(chunkIndex)
+                .firstRow(rows.get(0).rowNumber())
+                .lastRow(rows.get(rows.size() - 1).rowNumber())
+                .importedRows(importedRows)
+                .failedRows(errors.size())
+                .errors(errors)
+                .build();
+    }
+
+    private List<String> csvColumns(String header) throws FunctionalException {
+        List<String> columns = new ArrayList<>();
+        for (String column : CsvUtils.parseLine(header.replace(BYTE_ORDER_MARK, ""))) {
+            String normalized = column.trim().toLowerCase(Locale.ROOT);
+            if (!CSV_COLUMNS.contains(normalized)) {
+                throw new FunctionalException(messages.get(IMPORT_UNKNOWN_COLUMN) + " " + column);
+            }
+            columns.add(normalized);
+        }
+        return columns;
+    }
+
+    private ImportRow parseCsvRow(List<String> columns, long rowNumber, String line) {
+        try {
+            List<String> values = CsvUtils.parseLine(line);
+            if (values.size() != columns.size()) {
+                return ImportRow.failed(rowNumber, "Expected " + columns.size() + " columns but found " + values.size());
+            }
+            ProductDto productDto = new ProductDto();
+            for (int i = 0; i < columns.size(); i++) {
+                String value = values.get(i).trim();
+                if (!value.isEmpty()) {
+                    setCsvField(productDto, columns.get(i), value);
+                }
+            }
+            return validate(rowNumber, productDto);
+        } catch (IllegalArgumentException e) {
+            return ImportRow.failed(rowNumber, e.getMessage());
+        }
+    }
+
+    private static void setCsvField(ProductDto productDto, String column, String value) {
+        switch (column) {
+            case "id", "code" -> {
+                // exported identifiers are ignored, imported products always get fresh ones
+            }
+            case "name" -> productDto.setName(value);
+            case "description" -> productDto.setDescription(value);
+            case "image" -> productDto.setImage(value);
+            case "category" -> productDto.setCategory(value);
+            case "price" -> productDto.setPrice(Double.parseDouble(value));
+            case "quantity" -> productDto.setQuantity(Integer.parseInt(value));
+            case "internalreference" -> productDto.setInternalReference(value);
+            case "shellid" -> productDto.setShellId(Long.parseLong(value));
+            case "inventorystatus" -> productDto.setInventoryStatus(value);
+            case "rating" -> productDto.setRating(Double.parseDouble(value));
+            default -> throw new IllegalArgumentException("Unknown column " + column);
+        }
+    }
+
+    private ImportRow parseJsonRow(long rowNumber, String line) {
+        try {
+            return validate(rowNumber, objectMapper.readValue(line, ProductDto.class));
+        } catch (JsonProcessingException e) {
+            return ImportRow.failed(rowNumber, e.getOriginalMessage());
+        }
+    }
+
+    private static ImportRow validate(long rowNumber, ProductDto productDto) {
+        if (productDto.getName() == null || productDto.getName().isBlank()) {
+            return ImportRow.failed(rowNumber, "Product name is required");
+        }
+        if (productDto.getInventoryStatus() != null) {
+            try {
+                InventoryStatus.valueOf(productDto.getInventoryStatus());
+            } catch (IllegalArgumentException e) {
+                return ImportRow.failed(rowNumber, "Unknown inventory status " + productDto.getInventoryStatus());
+            }
+        }
+        return new ImportRow(rowNumber, productDto, null);
+    }
+
+    @FunctionalInterface
+    private interface RowParser {
+
+        ImportRow parse(long rowNumber, String line);
+
+    }
+
+    private record ImportRow(long rowNumber, ProductDto product, String error) {
+
+        static ImportRow failed(long rowNumber, String error) {
+            return new ImportRow(rowNumber, null, error);
+        }
+
+    }
+
+}
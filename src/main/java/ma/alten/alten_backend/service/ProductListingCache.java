@@ -0,0 +1,124 @@
+package ma.alten.alten_backend.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import ma.alten.alten_backend.dto.ListingRevisionDto;
+import ma.alten.alten_backend.dto.ProductDto;
+import ma.alten.alten_backend.dto.ProductFilter;
+import ma.alten.alten_backend.event.ProductChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Result cache for {@code getAllProducts}, keyed on the normalized filter tuple and page.
+ * Concurrent misses on the same key wait for a single database execution. Every committed product
+ * write bumps a generation that is part of the key, so results cached before it are never served again.
+ * The revision of each filtered listing, from which its ETag is derived, is cached the same way.
+ */
+@Component
+@Slf4j
+public class ProductListingCache {
+
+    private static final String CACHE_NAME = "productListings";
+    private static final String REVISION_CACHE_NAME = "productListingRevisions";
+
+    private final boolean enabled;
+    private final AsyncCache<ListingKey, Page<ProductDto>> cache;
+    private final AsyncCache<RevisionKey, ListingRevisionDto> revisions;
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public ProductListingCache(@Value("${product.listing-cache.enabled:true}") boolean enabled,
+                               @Value("${product.listing-cache.maximum-size:2000}") long maximumSize,
+                               @Value("${product.listing-cache.ttl:30s}") Duration ttl,
+                               MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        this.revisions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), CACHE_NAME);
+        CaffeineCacheMetrics.monitor(meterRegistry, revisions.synchronous(), REVISION_CACHE_NAME);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Page<ProductDto> get(ProductFilter filter, int page, int size, boolean withTotal, Supplier<Page<ProductDto>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        return get(cache, new ListingKey(generation.get(), filter.normalized(), page, size, withTotal), loader);
+    }
+
+    public ListingRevisionDto getRevision(ProductFilter filter, Supplier<ListingRevisionDto> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        return get(revisions, new RevisionKey(generation.get(), filter.normalized()), loader);
+    }
+
+    public void invalidate() {
+        long current = generation.incrementAndGet();
+        log.debug("Product listing cache moved to generation {}", current);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidate();
+    }
+
+    private static <K, V> V get(AsyncCache<K, V> cache, K key, Supplier<V> loader) {
+        CompletableFuture<V> pending = new CompletableFuture<>();
+        CompletableFuture<V> future = cache.get(key, (cacheKey, executor) -> pending);
+        if (future != pending) {
+            return join(future);
+        }
+        // this thread owns the miss, the query runs outside of the cache's internal locks
+        try {
+            V value = loader.get();
+            pending.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record ListingKey(long generation, ProductFilter filter, int page, int size, boolean withTotal) {
+    }
+
+    private record RevisionKey(long generation, ProductFilter filter) {
+    }
+
+}
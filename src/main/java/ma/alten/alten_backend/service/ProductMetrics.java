@@ -0,0 +1,54 @@
+package ma.alten.alten_backend.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import ma.alten.alten_backend.dto.ProductFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Times the stages of the product read paths (query, count, mapping) as {@code product.query},
+ * tagged with the stage and the filter combination, and logs the executions slower than
+ * {@code product.metrics.slow-threshold}.
+ */
+@Component
+@Slf4j
+public class ProductMetrics {
+
+    public static final String QUERY_TIMER = "product.query";
+
+    private final MeterRegistry meterRegistry;
+    private final long slowThresholdNanos;
+
+    @Autowired
+    public ProductMetrics(MeterRegistry meterRegistry, @Value("${product.metrics.slow-threshold:200ms}") Duration slowThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    public <T> T time(String stage, ProductFilter filter, Supplier<T> operation) {
+        long start = System.nanoTime();
+        try {
+            return operation.get();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            String combination = filter.combination();
+            Timer.builder(QUERY_TIMER)
+                    .description("Product read path stages")
+                    .tag("stage", stage)
+                    .tag("filter", combination)
+                    .register(meterRegistry)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+            if (elapsed > slowThresholdNanos) {
+                log.warn("Slow product {} with filter {}: {} ms", stage, combination, TimeUnit.NANOSECONDS.toMillis(elapsed));
+            }
+        }
+    }
+
+}
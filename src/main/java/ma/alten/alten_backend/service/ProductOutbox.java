@@ -0,0 +1,95 @@
+package ma.alten.alten_backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import ma.alten.alten_backend.dto.ProductChangeDto;
+import ma.alten.alten_backend.dto.ProductChangeFeedDto;
+import ma.alten.alten_backend.dto.ProductDto;
+import ma.alten.alten_backend.event.ProductChangedEvent;
+import ma.alten.alten_backend.model.ProductOutboxEvent;
+import ma.alten.alten_backend.repository.ProductOutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Transactional outbox of the product writes. Every {@link ProductChangedEvent} is appended in the
+ * transaction that published it, so a change is recorded if and only if the write commits.
+ */
+@Service
+@Slf4j
+public class ProductOutbox {
+
+    private final ProductOutboxRepository productOutboxRepository;
+    private final ObjectMapper objectMapper;
+    private final int maxFeedSize;
+
+    @Autowired
+    public ProductOutbox(ProductOutboxRepository productOutboxRepository, ObjectMapper objectMapper,
+                         @Value("${product.outbox.max-feed-size:1000}") int maxFeedSize) {
+        this.productOutboxRepository = productOutboxRepository;
+        this.objectMapper = objectMapper;
+        this.maxFeedSize = maxFeedSize;
+    }
+
+    @EventListener
+    @Transactional
+    public void onProductChanged(ProductChangedEvent event) {
+        ProductDto state = event.after() != null ? event.after() : event.before();
+        productOutboxRepository.save(ProductOutboxEvent.builder()
+                .productId(event.productId())
+                .type(event.type())
+                .payload(state == null ? null : write(state))
+                .build());
+    }
+
+    /**
+     * Published changes following {@code since}, 0 to read the feed from its start.
+     */
+    public ProductChangeFeedDto changesSince(long since, int limit) {
+        log.debug("Start service product changes since {} limit {}", since, limit);
+        List<ProductChangeDto> changes = productOutboxRepository.findPublishedAfter(since, PageRequest.of(0, Math.min(limit, maxFeedSize)))
+                .stream()
+                .map(this::toChange)
+                .toList();
+        long nextToken = changes.isEmpty() ? since : changes.get(changes.size() - 1).getSequenceNumber();
+        Long first = productOutboxRepository.findFirstSequenceNumber();
+        boolean truncated = first != null && first > since + 1;
+        log.debug("End service product changes, {} changes", changes.size());
+        return new ProductChangeFeedDto(changes, nextToken, truncated);
+    }
+
+    ProductChangeDto toChange(ProductOutboxEvent event) {
+        return ProductChangeDto.builder()
+                .sequenceNumber(event.getSequenceNumber())
+                .type(event.getType())
+                .productId(event.getProductId())
+                .occurredAt(event.getCreatedAt())
+                .product(event.getPayload() == null ? null : read(event.getPayload()))
+                .build();
+    }
+
+    private String write(ProductDto product) {
+        try {
+            return objectMapper.writeValueAsString(product);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ProductDto read(String payload) {
+        try {
+            return objectMapper.readValue(payload, ProductDto.class);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,80 @@
+package ma.alten.alten_backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import ma.alten.alten_backend.dto.ProductChangeDto;
+import ma.alten.alten_backend.model.ProductOutboxEvent;
+import ma.alten.alten_backend.repository.ProductOutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Publishes the pending outbox entries to the {@link ProductChangeSink} in batches. Sequence numbers
+ * are given in the same transaction as the batch is published, in commit order rather than write order,
+ * so a write committing late is numbered after the ones already published and never skipped by the feed.
+ */
+@Component
+@Slf4j
+public class ProductOutboxRelay {
+
+    private final ProductOutboxRepository productOutboxRepository;
+    private final ProductOutbox productOutbox;
+    private final ProductChangeSink productChangeSink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration retention;
+
+    @Autowired
+    public ProductOutboxRelay(ProductOutboxRepository productOutboxRepository, ProductOutbox productOutbox,
+                              ProductChangeSink productChangeSink, PlatformTransactionManager transactionManager,
+                              @Value("${product.outbox.relay-batch-size:500}") int batchSize,
+                              @Value("${product.outbox.retention:7d}") Duration retention) {
+        this.productOutboxRepository = productOutboxRepository;
+        this.productOutbox = productOutbox;
+        this.productChangeSink = productChangeSink;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${product.outbox.relay-interval:1s}")
+    public void relay() {
+        int published;
+        do {
+            published = transactionTemplate.execute(status -> publishBatch());
+        } while (published == batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${product.outbox.purge-interval:1h}")
+    public void purge() {
+        Integer deleted = transactionTemplate.execute(status -> productOutboxRepository.deletePublishedBefore(Instant.now().minus(retention)));
+        log.debug("{} published product changes purged", deleted);
+    }
+
+    int publishBatch() {
+        List<ProductOutboxEvent> pending = productOutboxRepository.findPending(PageRequest.of(0, batchSize));
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        long sequenceNumber = productOutboxRepository.findLastSequenceNumber();
+        Instant now = Instant.now();
+        for (ProductOutboxEvent event : pending) {
+            event.setSequenceNumber(++sequenceNumber);
+            event.setPublishedAt(now);
+        }
+        List<ProductChangeDto> changes = pending.stream().map(productOutbox::toChange).toList();
+        // a failing sink rolls the numbering back, the batch is published again on the next run
+        productChangeSink.publish(changes);
+        log.debug("{} product changes relayed up to {}", changes.size(), sequenceNumber);
+        return changes.size();
+    }
+
+}
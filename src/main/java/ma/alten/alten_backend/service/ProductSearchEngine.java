@@ -0,0 +1,15 @@
+package ma.alten.alten_backend.service;
+
+import ma.alten.alten_backend.dto.ProductDto;
+
+import java.util.List;
+
+/**
+ * Relevance ranked search over the name, code and description of active products.
+ * The implementation is chosen with {@code product.search.engine}.
+ */
+public interface ProductSearchEngine {
+
+    List<ProductDto> search(String term, int limit);
+
+}
@@ -1,217 +1,461 @@
 package ma.alten.alten_backend.service;
 
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
 import jakarta.transaction.Transactional;
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import ma.alten.alten_backend.config.Messages;
+import ma.alten.alten_backend.dto.FacetQuery;
+import ma.alten.alten_backend.dto.FacetedSearchResultDto;
+import ma.alten.alten_backend.dto.KeysetPageDto;
+import ma.alten.alten_backend.dto.ListingRevisionDto;
 import ma.alten.alten_backend.dto.ProductDto;
+import ma.alten.alten_backend.dto.ProductFilter;
+import ma.alten.alten_backend.dto.ProductStatisticsDto;
+import ma.alten.alten_backend.dto.ProductSummaryDto;
 import ma.alten.alten_backend.enumeration.InventoryStatus;
+import ma.alten.alten_backend.event.ProductChangedEvent;
+import ma.alten.alten_backend.exceptions.FunctionalException;
+import ma.alten.alten_backend.exceptions.InvalidRequestException;
+import ma.alten.alten_backend.exceptions.PreconditionFailedException;
 import ma.alten.alten_backend.exceptions.TechnicalException;
 import ma.alten.alten_backend.mapper.ProductMapper;
 import ma.alten.alten_backend.model.Product;
 import ma.alten.alten_backend.repository.ProductRepository;
+import ma.alten.alten_backend.service.ProductImageService.StagedImage;
+import ma.alten.alten_backend.util.ProductCursor;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.UUID;
 
+import static ma.alten.alten_backend.util.constants.GlobalConstants.INVALID_CURSOR;
+import static ma.alten.alten_backend.util.constants.GlobalConstants.INVALID_INVENTORY_STATUS;
+import static ma.alten.alten_backend.util.constants.GlobalConstants.INVALID_PAGE_SIZE;
+import static ma.alten.alten_backend.util.constants.GlobalConstants.PRODUCT_CACHE;
 import static ma.alten.alten_backend.util.constants.GlobalConstants.PRODUCT_NOT_FOUND;
+import static ma.alten.alten_backend.util.constants.GlobalConstants.PRODUCT_VERSION_MISMATCH;
 
 @Service
-@AllArgsConstructor
+@Timed(value = "product.service", description = "ProductService operations")
 @Slf4j
 public class ProductService {
 
+    private static final String OPEN_BOUND = "*";
+    private static final int MAX_KEYSET_PAGE_SIZE = 1000;
+
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
     private final EntityManager entityManager;
     private final Messages messages;
-
-    Path imageStoragePath = Paths.get("product-images");
+    private final ProductCodeAllocator productCodeAllocator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductListingCache productListingCache;
+    private final ProductSearchEngine productSearchEngine;
+    private final ProductFacetIndex productFacetIndex;
+    private final ProductStatistics productStatistics;
+    private final CategoryDictionary categoryDictionary;
+    private final ProductImageService productImageService;
+    private final ProductMetrics productMetrics;
+    private final TransactionTemplate transactionTemplate;
 
     @Autowired
-    public ProductService(ProductRepository productRepository, ProductMapper productMapper, EntityManager entityManager, Messages messages) {
+    public ProductService(ProductRepository productRepository, ProductMapper productMapper, EntityManager entityManager, Messages messages,
+                          ProductCodeAllocator productCodeAllocator, ApplicationEventPublisher eventPublisher,
+                          ProductListingCache productListingCache, ProductSearchEngine productSearchEngine,
+                          ProductFacetIndex productFacetIndex, ProductStatistics productStatistics,
+                          CategoryDictionary categoryDictionary, ProductImageService productImageService,
+                          ProductMetrics productMetrics, PlatformTransactionManager transactionManager) {
         this.productRepository = productRepository;
         this.productMapper = productMapper;
         this.entityManager = entityManager;
         this.messages = messages;
-
-        try {
-            Files.createDirectories(imageStoragePath);
-        } catch (IOException e) {
-            throw new RuntimeException("Erreur lors de la création du répertoire de stockage des images", e);
-        }
+        this.productCodeAllocator = productCodeAllocator;
+        this.eventPublisher = eventPublisher;
+        this.productListingCache = productListingCache;
+        this.productSearchEngine = productSearchEngine;
+        this.productFacetIndex = productFacetIndex;
+        this.productStatistics = productStatistics;
+        this.categoryDictionary = categoryDictionary;
+        this.productImageService = productImageService;
+        this.productMetrics = productMetrics;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    @Transactional
+    /**
+     * The image is written to disk before the product is saved and attached to it asynchronously once
+     * processed, so no database connection is held while the upload is copied. The insert and its
+     * outbox entry share a transaction that ends before the image is handed over.
+     */
     public ProductDto addProduct(ProductDto productDTO, MultipartFile imageFile) throws IOException{
         log.debug("Start service add product");
+        StagedImage stagedImage = null;
         if (imageFile != null && !imageFile.isEmpty()) {
-            String imageFileName = saveImage(imageFile);
-            productDTO.setImage(imageFileName);
+            stagedImage = productImageService.stage(imageFile);
+            productDTO.setImage(null);
         }
-        String code = generateCode();
+        String code = productCodeAllocator.nextCode();
         productDTO.setCode(code);
         Product product = productMapper.toProduct(productDTO);
-        Product savedProduct = productRepository.save(product);
+        ProductDto savedProduct;
+        try {
+            savedProduct = transactionTemplate.execute(status -> {
+                ProductDto saved = productMapper.toProductDto(productRepository.save(product));
+                eventPublisher.publishEvent(ProductChangedEvent.created(saved));
+                return saved;
+            });
+        } catch (RuntimeException e) {
+            if (stagedImage != null) {
+                productImageService.discard(stagedImage);
+            }
+            throw e;
+        }
+        if (stagedImage != null) {
+            productImageService.process(savedProduct.getId(), stagedImage);
+        }
         log.debug("End service addProduct");
-        return productMapper.toProductDto(savedProduct);
+        return savedProduct;
+    }
+
+    public Page<ProductDto> getAllProducts(int page, int size, String searchByCode, String searchByName,
+                                           String searchByCategory, String searchByInventoryStatus, String searchByPriceRange) {
+        return getAllProducts(page, size, searchByCode, searchByName, searchByCategory, searchByInventoryStatus, searchByPriceRange, true);
     }
 
-    private String saveImage(MultipartFile imageFile) throws IOException {
-        String imageFileName = UUID.randomUUID().toString() + "_" + imageFile.getOriginalFilename();
-        Path imagePath = imageStoragePath.resolve(imageFileName);
-        Files.copy(imageFile.getInputStream(), imagePath);
-        return imageFileName;
+    /**
+     * Offset listing. When {@code withTotal} is false no count query is executed and the returned
+     * total is only a lower bound telling whether a next page exists.
+     */
+    public Page<ProductDto> getAllProducts(int page, int size, String searchByCode, String searchByName,
+                                           String searchByCategory, String searchByInventoryStatus, String searchByPriceRange,
+                                           boolean withTotal) {
+        log.debug("Start service Get Products page: {} size: {} searchByCode: {} searchByName: {} searchByCategory: {} searchByInventoryStatus: {} searchByPriceRange: {} withTotal: {}", page, size, searchByCode, searchByName, searchByCategory, searchByInventoryStatus, searchByPriceRange, withTotal);
+        ProductFilter filter = new ProductFilter(searchByCode, searchByName, searchByCategory, searchByInventoryStatus, searchByPriceRange);
+        return productListingCache.get(filter, page, size, withTotal, () -> loadProducts(filter, page, size, withTotal));
     }
 
-    private String generateCode() {
-        String newCode;
-        int nextCodeNumber;
+    private Page<ProductDto> loadProducts(ProductFilter filter, int page, int size, boolean withTotal) {
+        Pageable pageable = PageRequest.of(page, size);
+        Slice<Product> products;
 
-        Optional<String> lastCodeOpt = productRepository.findTopByOrderByCodeDesc().map(Product::getCode);
-        if (lastCodeOpt.isPresent()) {
-            String lastCode = lastCodeOpt.get();
-            nextCodeNumber = Integer.parseInt(lastCode.replaceAll("\\D+", "")) + 1;
+        if (!filter.isEmpty()) {
+            products = filterProducts(filter, pageable, withTotal);
+        } else if (withTotal) {
+            products = productMetrics.time("listing", filter, () -> productRepository.findAllWithDeletedIsFalse(pageable));
         } else {
-            nextCodeNumber = 1;
+            products = productMetrics.time("listing", filter, () -> productRepository.findSliceWithDeletedIsFalse(pageable));
         }
-        do {
-            newCode = String.format("PRODUCT%03d", nextCodeNumber);
-            nextCodeNumber++;
-        } while (productRepository.existsByCode(newCode));
 
-        return newCode;
+        Slice<Product> loaded = products;
+        List<ProductDto> productDTOs = productMetrics.time("mapping", filter, () -> loaded.getContent().stream()
+                .map(productMapper::toProductDto)
+                .toList());
+        log.debug("End service getProductsByCriteria ");
+        return new PageImpl<>(productDTOs, pageable, totalElements(products));
     }
 
-    public Page<ProductDto> getAllProducts(int page, int size, String searchByCode, String searchByName,
-                                           String searchByCategory, String searchByInventoryStatus, String searchByPriceRange) {
-        log.debug("Start service Get Products page: {} size: {} searchByCode: {} searchByName: {} searchByCategory: {} searchByInventoryStatus: {} searchByPriceRange: {}", page, size, searchByCode, searchByName, searchByCategory, searchByInventoryStatus, searchByPriceRange);
+    /**
+     * Same rows as {@link #getAllProducts}, most recently updated first, reduced to the list view columns.
+     * They are selected straight into {@link ProductSummaryDto}: no entity is loaded, tracked or mapped.
+     */
+    public Page<ProductSummaryDto> getProductSummaries(int page, int size, ProductFilter filter, boolean withTotal) {
+        log.debug("Start service get product summaries page: {} size: {} filter: {} withTotal: {}", page, size, filter, withTotal);
         Pageable pageable = PageRequest.of(page, size);
-        Page<Product> products;
-
-        if (searchByCode != null || searchByName != null || searchByCategory != null ||
-                searchByInventoryStatus != null || searchByPriceRange != null) {
-            products = filterProducts(searchByCode, searchByName, searchByCategory, searchByInventoryStatus, searchByPriceRange, pageable);
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductSummaryDto> criteriaQuery = criteriaBuilder.createQuery(ProductSummaryDto.class);
+        Root<Product> root = criteriaQuery.from(Product.class);
+        criteriaQuery.select(criteriaBuilder.construct(ProductSummaryDto.class, root.get("id"), root.get("code"), root.get("name"),
+                        root.get("price"), root.get("inventoryStatus"), root.get("image")))
+                .where(buildPredicate(criteriaBuilder, root, filter))
+                .orderBy(criteriaBuilder.desc(root.get("updatedAt")), criteriaBuilder.desc(root.get("id")));
+
+        int maxResults = withTotal ? size : size + 1;
+        List<ProductSummaryDto> resultList = productMetrics.time("summary", filter, () -> entityManager.createQuery(criteriaQuery)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(maxResults)
+                .getResultList());
+
+        Page<ProductSummaryDto> summaries;
+        if (withTotal) {
+            CriteriaQuery<Long> countQuery = criteriaBuilder.createQuery(Long.class);
+            Root<Product> countRoot = countQuery.from(Product.class);
+            countQuery.select(criteriaBuilder.count(countRoot)).where(buildPredicate(criteriaBuilder, countRoot, filter));
+            long total = productMetrics.time("count", filter, () -> entityManager.createQuery(countQuery).getSingleResult());
+            summaries = new PageImpl<>(resultList, pageable, total);
         } else {
-            products = productRepository.findAllWithDeletedIsFalse(pageable);
+            boolean hasNext = resultList.size() > size;
+            List<ProductSummaryDto> content = hasNext ? resultList.subList(0, size) : resultList;
+            summaries = new PageImpl<>(content, pageable, pageable.getOffset() + content.size() + (hasNext ? 1 : 0));
         }
+        log.debug("End service get product summaries");
+        return summaries;
+    }
 
-        List<ProductDto> productDTOs = products.getContent().stream()
-                .map(productMapper::toProductDto)
-                .toList();
-        log.debug("End service getProductsByCriteria ");
-        return new PageImpl<>(productDTOs, pageable, products.getTotalElements());
+    /**
+     * Logically deleted products, most recently archived first.
+     */
+    public Page<ProductDto> getArchivedProducts(int page, int size) {
+        log.debug("Start service get archived products page: {} size: {}", page, size);
+        Page<ProductDto> products = productMetrics.time("archived", ProductFilter.NONE,
+                () -> productRepository.findArchived(PageRequest.of(page, size)).map(productMapper::toProductDto));
+        log.debug("End service get archived products");
+        return products;
     }
 
-    private Page<Product> filterProducts(String searchByCode, String searchByName, String searchByCategory,
-                                         String searchByInventoryStatus, String searchByPriceRange, Pageable pageable) {
+    /**
+     * Keyset listing ordered by {@code (updatedAt DESC, id DESC)}: every page costs the same
+     * whatever its depth since the database seeks straight to the cursor position.
+     */
+    public KeysetPageDto<ProductDto> getProductsAfter(String cursor, int size, ProductFilter filter) throws FunctionalException {
+        log.debug("Start service get products after cursor: {} size: {} filter: {}", cursor, size, filter);
+        if (size < 1 || size > MAX_KEYSET_PAGE_SIZE) {
+            throw new InvalidRequestException(messages.get(INVALID_PAGE_SIZE));
+        }
         CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
         CriteriaQuery<Product> criteriaQuery = criteriaBuilder.createQuery(Product.class);
         Root<Product> root = criteriaQuery.from(Product.class);
+        Expression<Instant> updatedAt = root.get("updatedAt");
+        Expression<Long> id = root.get("id");
+
+        Predicate predicate = buildPredicate(criteriaBuilder, root, filter);
+        if (cursor != null) {
+            ProductCursor after = decodeCursor(cursor);
+            predicate = criteriaBuilder.and(predicate, criteriaBuilder.or(
+                    criteriaBuilder.lessThan(updatedAt, after.updatedAt()),
+                    criteriaBuilder.and(criteriaBuilder.equal(updatedAt, after.updatedAt()), criteriaBuilder.lessThan(id, after.id()))));
+        }
+        criteriaQuery.where(predicate).orderBy(criteriaBuilder.desc(updatedAt), criteriaBuilder.desc(id));
+
+        List<Product> resultList = productMetrics.time("keyset", filter, () -> entityManager.createQuery(criteriaQuery)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setMaxResults(size + 1)
+                .getResultList());
+        boolean hasNext = resultList.size() > size;
+        List<Product> content = hasNext ? resultList.subList(0, size) : resultList;
+        String nextCursor = null;
+        if (hasNext) {
+            Product last = content.get(content.size() - 1);
+            nextCursor = new ProductCursor(last.getUpdatedAt(), last.getId()).encode();
+        }
+        log.debug("End service get products after cursor: {}", cursor);
+        return KeysetPageDto.<ProductDto>builder()
+                .content(productMapper.toProductDtos(content))
+                .size(content.size())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    public List<ProductDto> searchProducts(String term, int limit) {
+        log.debug("Start service search products term: {} limit: {}", term, limit);
+        if (term == null || term.isBlank()) {
+            return List.of();
+        }
+        List<ProductDto> products = productSearchEngine.search(term.trim(), limit);
+        log.debug("End service search products, {} results", products.size());
+        return products;
+    }
 
-        Predicate predicate = buildPredicate(criteriaBuilder, root, searchByCode, searchByName, searchByCategory, searchByInventoryStatus, searchByPriceRange);
-        criteriaQuery.where(predicate);
+    public FacetedSearchResultDto facetedSearch(String text, String category, String inventoryStatus, Double minPrice,
+                                                Double maxPrice, int page, int size) throws FunctionalException {
+        log.debug("Start service faceted search text: {} category: {} inventoryStatus: {} price: {}-{}", text, category, inventoryStatus, minPrice, maxPrice);
+        InventoryStatus status = null;
+        if (inventoryStatus != null) {
+            try {
+                status = InventoryStatus.valueOf(inventoryStatus);
+            } catch (IllegalArgumentException e) {
+                throw new FunctionalException(messages.get(INVALID_INVENTORY_STATUS));
+            }
+        }
+        // the index holds category names as stored, whatever the spelling of the request
+        String categoryName = category == null ? null : categoryDictionary.find(category).map(categoryDictionary::name).orElse(category);
+        FacetedSearchResultDto result = productFacetIndex.search(new FacetQuery(text, categoryName, status, minPrice, maxPrice, page, size));
+        log.debug("End service faceted search, {} matches", result.getTotal());
+        return result;
+    }
+
+    public ProductStatisticsDto getProductStatistics() {
+        return productStatistics.getStatistics();
+    }
+
+    private ProductCursor decodeCursor(String cursor) throws FunctionalException {
+        try {
+            return ProductCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException(messages.get(INVALID_CURSOR));
+        }
+    }
 
-        TypedQuery<Product> typedQuery = entityManager.createQuery(criteriaQuery);
-        long totalCount = typedQuery.getResultList().size();
-        typedQuery.setFirstResult((int) pageable.getOffset());
-        typedQuery.setMaxResults(pageable.getPageSize());
-        List<Product> resultList = typedQuery.getResultList();
+    private static long totalElements(Slice<Product> products) {
+        if (products instanceof Page<Product> page) {
+            return page.getTotalElements();
+        }
+        return products.getPageable().getOffset() + products.getNumberOfElements() + (products.hasNext() ? 1 : 0);
+    }
+
+    private Slice<Product> filterProducts(ProductFilter filter, Pageable pageable, boolean withTotal) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Product> criteriaQuery = criteriaBuilder.createQuery(Product.class);
+        Root<Product> root = criteriaQuery.from(Product.class);
+        criteriaQuery.where(buildPredicate(criteriaBuilder, root, filter))
+                .orderBy(criteriaBuilder.desc(root.get("updatedAt")), criteriaBuilder.desc(root.get("id")));
+
+        // when the total is skipped, one extra row tells whether a next page exists
+        int maxResults = withTotal ? pageable.getPageSize() : pageable.getPageSize() + 1;
+        List<Product> resultList = productMetrics.time("listing", filter, () -> entityManager.createQuery(criteriaQuery)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(maxResults)
+                .getResultList());
+
+        if (!withTotal) {
+            boolean hasNext = resultList.size() > pageable.getPageSize();
+            return new SliceImpl<>(hasNext ? resultList.subList(0, pageable.getPageSize()) : resultList, pageable, hasNext);
+        }
+        return new PageImpl<>(resultList, pageable, countProducts(filter));
+    }
 
-        return new PageImpl<>(resultList, pageable, totalCount);
+    private long countProducts(ProductFilter filter) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> countQuery = criteriaBuilder.createQuery(Long.class);
+        Root<Product> root = countQuery.from(Product.class);
+        countQuery.select(criteriaBuilder.count(root)).where(buildPredicate(criteriaBuilder, root, filter));
+        return productMetrics.time("count", filter, () -> entityManager.createQuery(countQuery).getSingleResult());
     }
 
-    private Predicate buildPredicate(CriteriaBuilder criteriaBuilder, Root<Product> root,
-                                     String searchByCode, String searchByName, String searchByCategory,
-                                     String searchByInventoryStatus, String searchByPriceRange) {
+    private Predicate buildPredicate(CriteriaBuilder criteriaBuilder, Root<Product> root, ProductFilter filter) {
         Predicate predicate = criteriaBuilder.conjunction();
 
-        if (searchByCode != null) {
+        if (filter.searchByCode() != null) {
             predicate = criteriaBuilder.and(predicate, criteriaBuilder.like(criteriaBuilder.lower(root.get("code")),
-                    "%" + searchByCode.toLowerCase() + "%"));
+                    "%" + filter.searchByCode().toLowerCase() + "%"));
         }
 
-        if (searchByName != null) {
+        if (filter.searchByName() != null) {
             predicate = criteriaBuilder.and(predicate, criteriaBuilder.like(criteriaBuilder.lower(root.get("name")),
-                    "%" + searchByName.toLowerCase() + "%"));
+                    "%" + filter.searchByName().toLowerCase() + "%"));
         }
 
-        if (searchByCategory != null) {
-            predicate = criteriaBuilder.and(predicate, criteriaBuilder.equal(root.get("category"), searchByCategory));
+        if (filter.searchByCategory() != null) {
+            // resolved in memory, products are filtered on the indexed id without a join
+            Optional<Integer> categoryId = categoryDictionary.find(filter.searchByCategory());
+            predicate = criteriaBuilder.and(predicate, categoryId
+                    .map(id -> criteriaBuilder.equal(root.get("categoryId"), id))
+                    .orElseGet(criteriaBuilder::disjunction));
         }
 
-        if (searchByInventoryStatus != null) {
-            predicate = criteriaBuilder.and(predicate, criteriaBuilder.equal(root.get("inventoryStatus"), searchByInventoryStatus));
+        if (filter.searchByInventoryStatus() != null) {
+            predicate = criteriaBuilder.and(predicate, criteriaBuilder.equal(root.get("inventoryStatus"), filter.searchByInventoryStatus()));
         }
 
-        if (searchByPriceRange != null) {
-            String[] range = searchByPriceRange.split("-");
-            double minPrice = Double.parseDouble(range[0]);
-            double maxPrice = Double.parseDouble(range[1]);
-            predicate = criteriaBuilder.and(predicate, criteriaBuilder.between(root.get("price"), minPrice, maxPrice));
+        if (filter.searchByPriceRange() != null) {
+            // "min-max" with both bounds included, "*" leaves a bound open as in the price facet labels
+            String[] range = filter.searchByPriceRange().split("-");
+            Expression<Double> price = root.get("price");
+            if (!OPEN_BOUND.equals(range[0].trim())) {
+                predicate = criteriaBuilder.and(predicate, criteriaBuilder.greaterThanOrEqualTo(price, Double.parseDouble(range[0])));
+            }
+            if (!OPEN_BOUND.equals(range[1].trim())) {
+                predicate = criteriaBuilder.and(predicate, criteriaBuilder.lessThanOrEqualTo(price, Double.parseDouble(range[1])));
+            }
         }
 
         return predicate;
     }
 
 
-    public ProductDto updateProduct(Long id, ProductDto productDTO) throws TechnicalException {
-        log.debug("Start service update product id {}", id);
+    @Transactional
+    public ProductDto updateProduct(Long id, ProductDto productDTO) throws TechnicalException, FunctionalException {
+        return updateProduct(id, productDTO, null);
+    }
+
+    /**
+     * Conditional update when {@code expectedVersion} is given. Either way the version column makes
+     * a concurrent update of the same product fail on commit instead of being silently overwritten.
+     */
+    @Transactional
+    public ProductDto updateProduct(Long id, ProductDto productDTO, Long expectedVersion) throws TechnicalException, FunctionalException {
+        log.debug("Start service update product id {} expected version {}", id, expectedVersion);
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new TechnicalException(messages.get(PRODUCT_NOT_FOUND)));
+        if (expectedVersion != null && !expectedVersion.equals(product.getVersion())) {
+            throw new PreconditionFailedException(messages.get(PRODUCT_VERSION_MISMATCH));
+        }
+        ProductDto before = productMapper.toProductDto(product);
 
-        product.setName(productDTO.getName());
-        product.setDescription(productDTO.getDescription());
-        product.setImage(productDTO.getImage());
-        product.setCategory(productDTO.getCategory());
-        product.setPrice(productDTO.getPrice());
-        product.setQuantity(productDTO.getQuantity());
-        product.setInternalReference(productDTO.getInternalReference());
-        product.setShellId(productDTO.getShellId());
-        product.setInventoryStatus(InventoryStatus.valueOf(productDTO.getInventoryStatus()));
-        product.setRating(productDTO.getRating());
-        product.setUpdatedAt(LocalDateTime.now().toInstant(ZoneOffset.UTC));
+        productMapper.updateProduct(productDTO, product);
+        // flushed now so the returned version is the one written
+        ProductDto updatedProduct = productMapper.toProductDto(productRepository.saveAndFlush(product));
+        eventPublisher.publishEvent(ProductChangedEvent.updated(before, updatedProduct));
         log.debug("End service update product  with id {}, product {}", id, productDTO);
-        return productMapper.toProductDto(productRepository.save(product));
+        return updatedProduct;
     }
 
+    @Cacheable(cacheNames = PRODUCT_CACHE, key = "#id")
     public ProductDto getProductById(Long id) throws TechnicalException {
         log.debug("Start service get product By Id {}", id);
-        return productRepository.findById(id)
+        return productRepository.findReadOnlyById(id)
                 .map(productMapper::toProductDto)
                 .orElseThrow(() -> new TechnicalException(messages.get(PRODUCT_NOT_FOUND)));
     }
 
+    /**
+     * Single aggregate over the products of a listing, for conditional requests answered without
+     * running the listing itself. Cached with the listing pages; when listings are not cached it is
+     * only computed for a {@code conditional} request, which it may answer, and null otherwise.
+     */
+    public ListingRevisionDto getListingRevision(ProductFilter filter, boolean conditional) {
+        if (!conditional && !productListingCache.isEnabled()) {
+            return null;
+        }
+        return productListingCache.getRevision(filter, () -> loadListingRevision(filter));
+    }
+
+    private ListingRevisionDto loadListingRevision(ProductFilter filter) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ListingRevisionDto> criteriaQuery = criteriaBuilder.createQuery(ListingRevisionDto.class);
+        Root<Product> root = criteriaQuery.from(Product.class);
+        Expression<Instant> updatedAt = root.get("updatedAt");
+        criteriaQuery.select(criteriaBuilder.construct(ListingRevisionDto.class, criteriaBuilder.greatest(updatedAt), criteriaBuilder.count(root)))
+                .where(buildPredicate(criteriaBuilder, root, filter));
+        return productMetrics.time("revision", filter, () -> entityManager.createQuery(criteriaQuery).getSingleResult());
+    }
+
+    @Transactional
     public void deleteProductPhysical(Long id) throws TechnicalException {
         log.debug("Start service delete physical product By Id {}", id);
         if (id == null) {
             throw new TechnicalException(messages.get(PRODUCT_NOT_FOUND));
         }
-        productRepository.deleteById(id);
+        // the state leaving the active catalog, none when the product was archived
+        ProductDto before = productRepository.findLockedById(id).map(productMapper::toProductDto).orElse(null);
+        if (productRepository.deletePhysically(id) > 0) {
+            eventPublisher.publishEvent(ProductChangedEvent.deleted(id, before));
+        }
         log.debug("End service delete product By Id {}", id);
     }
 
+    @Transactional
     public void deleteProductLogical(Long id) throws TechnicalException {
         log.debug("Start service delete logical product By Id {}", id);
         if (id == null) {
@@ -222,8 +466,10 @@ public class ProductService {
         if (productOptional.isPresent()) {
             Product product = productOptional.get();
 
+            ProductDto before = productMapper.toProductDto(product);
             product.setDeleted(true);
             productRepository.save(product);
+            eventPublisher.publishEvent(ProductChangedEvent.archived(before));
         }
         log.debug("End service delete product By Id {}", id);
     }
@@ -0,0 +1,294 @@
+package ma.alten.alten_backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import ma.alten.alten_backend.dto.ProductAggregateDto;
+import ma.alten.alten_backend.dto.ProductDto;
+import ma.alten.alten_backend.dto.ProductStatisticsDto;
+import ma.alten.alten_backend.dto.ProductStockGroupDto;
+import ma.alten.alten_backend.enumeration.InventoryStatus;
+import ma.alten.alten_backend.event.ProductChangedEvent;
+import ma.alten.alten_backend.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Product count, total quantity and stock value of the active catalog, overall, per category and per
+ * inventory status, kept in memory so that reading them costs nothing but the number of groups.
+ * A committed change moves the totals by the difference between the product's contribution after
+ * and before it, every writer publishes the state it replaced as read under its row lock or version
+ * check. A periodic reconciliation sums the stock per group in the database, corrects the totals
+ * and counts the groups that had drifted, such as after writes made outside of this application.
+ */
+@Component
+@Slf4j
+public class ProductStatistics {
+
+    private static final String TOTAL = "total";
+    // the database sums the stock value in double precision
+    private static final BigDecimal VALUE_TOLERANCE = new BigDecimal("0.01");
+    private static final int RECONCILE_ATTEMPTS = 3;
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final Counter driftedGroups;
+    private final Timer reconcileTimer;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Totals totals = new Totals();
+    private Instant reconciledAt;
+    // changes committed while a reconciliation reads the catalog, whose sums may or may not include them
+    private List<ProductChangedEvent> pendingChanges;
+
+    @Autowired
+    public ProductStatistics(ProductRepository productRepository, PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.driftedGroups = Counter.builder("product.statistics.drift")
+                .description("Statistics groups corrected by a reconciliation")
+                .register(meterRegistry);
+        this.reconcileTimer = Timer.builder("product.statistics.reconcile")
+                .description("Statistics reconciliations")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${product.statistics.reconcile-interval:15m}",
+            initialDelayString = "${product.statistics.reconcile-interval:15m}")
+    public void scheduledReconcile() {
+        reconcile();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            totals.apply(event);
+            if (pendingChanges != null) {
+                pendingChanges.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public ProductStatisticsDto getStatistics() {
+        lock.readLock().lock();
+        try {
+            return ProductStatisticsDto.builder()
+                    .total(totals.total.toDto(TOTAL))
+                    .categories(toDtos(new TreeMap<>(totals.categories)))
+                    .inventoryStatuses(toDtos(totals.inventoryStatuses))
+                    .reconciledAt(reconciledAt)
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the totals by ones computed from the database. A read during which changes were committed
+     * is retried, as its sums may or may not include them; the current totals are kept when every attempt
+     * overlapped a change, except on the first load where the changes are replayed onto the sums.
+     *
+     * @return the number of groups whose totals were wrong
+     */
+    public synchronized int reconcile() {
+        return reconcileTimer.record(() -> {
+            for (int attempt = 1; ; attempt++) {
+                List<ProductChangedEvent> changes = new ArrayList<>();
+                Totals reloaded = load(changes);
+                lock.writeLock().lock();
+                try {
+                    if (!changes.isEmpty() && attempt < RECONCILE_ATTEMPTS) {
+                        continue;
+                    }
+                    if (!changes.isEmpty()) {
+                        if (reconciledAt != null) {
+                            log.debug("Product statistics reconciliation skipped, the catalog kept changing");
+                            return 0;
+                        }
+                        changes.forEach(reloaded::apply);
+                    }
+                    int drifted = reconciledAt == null ? 0 : totals.differences(reloaded);
+                    totals = reloaded;
+                    reconciledAt = Instant.now();
+                    if (drifted > 0) {
+                        driftedGroups.increment(drifted);
+                        log.warn("Product statistics reconciled, {} groups had drifted", drifted);
+                    } else {
+                        log.debug("Product statistics reconciled over {} products", reloaded.total.productCount());
+                    }
+                    return drifted;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        });
+    }
+
+    /**
+     * Sums the stock per group, collecting the changes committed meanwhile into {@code changes}.
+     */
+    private Totals load(List<ProductChangedEvent> changes) {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = changes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            return readOnlyTransactionTemplate.execute(status -> {
+                Totals loaded = new Totals();
+                productRepository.findStockGroups().forEach(loaded::add);
+                return loaded;
+            });
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private static <K> List<ProductAggregateDto> toDtos(Map<K, Aggregate> aggregates) {
+        List<ProductAggregateDto> dtos = new ArrayList<>(aggregates.size());
+        aggregates.forEach((key, aggregate) -> dtos.add(aggregate.toDto(key.toString())));
+        return dtos;
+    }
+
+    /**
+     * Contribution of one product to the totals.
+     */
+    private record StockLevel(String category, InventoryStatus inventoryStatus, long quantity, BigDecimal value) {
+
+        static StockLevel of(ProductDto product) {
+            InventoryStatus status = product.getInventoryStatus() == null ? null : InventoryStatus.valueOf(product.getInventoryStatus());
+            long units = product.getQuantity() == null ? 0 : product.getQuantity();
+            BigDecimal value = product.getPrice() == null ? BigDecimal.ZERO
+                    : BigDecimal.valueOf(product.getPrice()).multiply(BigDecimal.valueOf(units));
+            return new StockLevel(product.getCategory(), status, units, value);
+        }
+
+    }
+
+    private record Aggregate(long productCount, long totalQuantity, BigDecimal stockValue) {
+
+        static final Aggregate EMPTY = new Aggregate(0, 0, BigDecimal.ZERO);
+
+        static Aggregate of(ProductStockGroupDto group) {
+            return new Aggregate(group.productCount(), group.totalQuantity() == null ? 0 : group.totalQuantity(),
+                    group.stockValue() == null ? BigDecimal.ZERO : BigDecimal.valueOf(group.stockValue()));
+        }
+
+        Aggregate plus(Aggregate other, int sign) {
+            return new Aggregate(productCount + sign * other.productCount, totalQuantity + sign * other.totalQuantity,
+                    sign > 0 ? stockValue.add(other.stockValue) : stockValue.subtract(other.stockValue));
+        }
+
+        boolean sameAs(Aggregate other) {
+            return other != null && productCount == other.productCount && totalQuantity == other.totalQuantity
+                    && stockValue.subtract(other.stockValue).abs().compareTo(VALUE_TOLERANCE) < 0;
+        }
+
+        ProductAggregateDto toDto(String value) {
+            return new ProductAggregateDto(value, productCount, totalQuantity, stockValue);
+        }
+
+    }
+
+    /**
+     * Not thread safe, guarded by the enclosing lock once published.
+     */
+    private static final class Totals {
+
+        private final Map<String, Aggregate> categories = new HashMap<>();
+        private final Map<InventoryStatus, Aggregate> inventoryStatuses = new EnumMap<>(InventoryStatus.class);
+        private Aggregate total = Aggregate.EMPTY;
+
+        /**
+         * Removes the product's previous contribution and adds its new one, either is absent when the
+         * product was not or is no longer in the active catalog.
+         */
+        void apply(ProductChangedEvent event) {
+            if (event.before() != null) {
+                add(StockLevel.of(event.before()), -1);
+            }
+            if (event.after() != null) {
+                add(StockLevel.of(event.after()), 1);
+            }
+        }
+
+        void add(ProductStockGroupDto group) {
+            add(group.category(), group.inventoryStatus(), Aggregate.of(group), 1);
+        }
+
+        private void add(StockLevel level, int sign) {
+            add(level.category(), level.inventoryStatus(), new Aggregate(1, level.quantity(), level.value()), sign);
+        }
+
+        private void add(String category, InventoryStatus inventoryStatus, Aggregate aggregate, int sign) {
+            total = total.plus(aggregate, sign);
+            if (category != null) {
+                merge(categories, category, aggregate, sign);
+            }
+            if (inventoryStatus != null) {
+                merge(inventoryStatuses, inventoryStatus, aggregate, sign);
+            }
+        }
+
+        /**
+         * Groups left without products are dropped.
+         */
+        private static <K> void merge(Map<K, Aggregate> aggregates, K key, Aggregate aggregate, int sign) {
+            Aggregate updated = aggregates.getOrDefault(key, Aggregate.EMPTY).plus(aggregate, sign);
+            if (updated.productCount() == 0) {
+                aggregates.remove(key);
+            } else {
+                aggregates.put(key, updated);
+            }
+        }
+
+        int differences(Totals other) {
+            return (total.sameAs(other.total) ? 0 : 1) + differences(categories, other.categories)
+                    + differences(inventoryStatuses, other.inventoryStatuses);
+        }
+
+        private static <K> int differences(Map<K, Aggregate> left, Map<K, Aggregate> right) {
+            Set<K> keys = new HashSet<>(left.keySet());
+            keys.addAll(right.keySet());
+            return (int) keys.stream().filter(key -> left.get(key) == null || !left.get(key).sameAs(right.get(key))).count();
+        }
+
+    }
+
+}
@@ -0,0 +1,66 @@
+package ma.alten.alten_backend.service;
+
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import ma.alten.alten_backend.config.Messages;
+import ma.alten.alten_backend.dto.ProductDto;
+import ma.alten.alten_backend.event.ProductChangedEvent;
+import ma.alten.alten_backend.exceptions.InsufficientStockException;
+import ma.alten.alten_backend.exceptions.TechnicalException;
+import ma.alten.alten_backend.mapper.ProductMapper;
+import ma.alten.alten_backend.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+import static ma.alten.alten_backend.util.constants.GlobalConstants.INSUFFICIENT_STOCK;
+import static ma.alten.alten_backend.util.constants.GlobalConstants.PRODUCT_NOT_FOUND;
+
+/**
+ * Relative stock changes. Each adjustment is a single conditional UPDATE: concurrent adjustments of
+ * the same product queue on its row lock instead of failing on a version conflict, and the
+ * inventory status is derived from the resulting quantity in the same statement. The row is locked
+ * by the read of its previous state, which the change event carries along with the new one.
+ */
+@Service
+@Slf4j
+public class ProductStockService {
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final Messages messages;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int lowStockThreshold;
+
+    @Autowired
+    public ProductStockService(ProductRepository productRepository, ProductMapper productMapper, Messages messages,
+                               ApplicationEventPublisher eventPublisher,
+                               @Value("${product.inventory.low-stock-threshold:10}") int lowStockThreshold) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.messages = messages;
+        this.eventPublisher = eventPublisher;
+        this.lowStockThreshold = lowStockThreshold;
+    }
+
+    @Transactional
+    public ProductDto adjustQuantity(Long id, int delta) throws TechnicalException, InsufficientStockException {
+        log.debug("Start service adjust quantity of product {} by {}", id, delta);
+        ProductDto before = productRepository.findLockedById(id)
+                .map(productMapper::toProductDto)
+                .orElseThrow(() -> new TechnicalException(messages.get(PRODUCT_NOT_FOUND)));
+        if (productRepository.adjustQuantity(id, delta, lowStockThreshold, Instant.now()) == 0) {
+            throw new InsufficientStockException(messages.get(INSUFFICIENT_STOCK));
+        }
+        ProductDto adjusted = productRepository.findById(id)
+                .map(productMapper::toProductDto)
+                .orElseThrow(() -> new TechnicalException(messages.get(PRODUCT_NOT_FOUND)));
+        eventPublisher.publishEvent(ProductChangedEvent.updated(before, adjusted));
+        log.debug("End service adjust quantity of product {}, quantity {}", id, adjusted.getQuantity());
+        return adjusted;
+    }
+
+}
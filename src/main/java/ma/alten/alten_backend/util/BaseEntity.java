@@ -30,6 +30,9 @@ public abstract class BaseEntity  {
     @UpdateTimestamp
     protected Instant updatedAt;
 
+    @Version
+    protected Long version;
+
     /**
      * Indicates whether the object has already been persisted or not
      *
@@ -0,0 +1,78 @@
+package ma.alten.alten_backend.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal RFC 4180 helpers for one-record-per-line files: quoted fields may contain
+ * separators and doubled quotes, but not line breaks.
+ */
+public final class CsvUtils {
+
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+
+    private CsvUtils() {
+        throw new UnsupportedOperationException("cannot be instantiated");
+    }
+
+    /**
+     * @throws IllegalArgumentException if a quoted field is not closed
+     */
+    public static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == QUOTE && i + 1 < line.length() && line.charAt(i + 1) == QUOTE) {
+                    field.append(QUOTE);
+                    i++;
+                } else if (c == QUOTE) {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == QUOTE) {
+                quoted = true;
+            } else if (c == SEPARATOR) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    public static String formatLine(List<?> values) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                line.append(SEPARATOR);
+            }
+            Object value = values.get(i);
+            if (value != null) {
+                line.append(escape(value.toString()));
+            }
+        }
+        return line.toString();
+    }
+
+    private static String escape(String value) {
+        boolean needsQuotes = value.indexOf(SEPARATOR) >= 0 || value.indexOf(QUOTE) >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!needsQuotes) {
+            return value;
+        }
+        // line breaks are flattened so that every record stays on a single line
+        String escaped = value.replace("\r", " ").replace("\n", " ").replace("\"", "\"\"");
+        return QUOTE + escaped + QUOTE;
+    }
+
+}
@@ -0,0 +1,33 @@
+package ma.alten.alten_backend.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a keyset page, ordered by {@code (updatedAt DESC, id DESC)}.
+ * Serialized as an opaque url-safe token so clients never build it by hand.
+ */
+public record ProductCursor(Instant updatedAt, Long id) {
+
+    private static final String SEPARATOR = ":";
+
+    public String encode() {
+        String raw = updatedAt.getEpochSecond() + SEPARATOR + updatedAt.getNano() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    public static ProductCursor decode(String token) {
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        String[] parts = raw.split(SEPARATOR);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Malformed cursor " + token);
+        }
+        Instant updatedAt = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+        return new ProductCursor(updatedAt, Long.parseLong(parts[2]));
+    }
+
+}
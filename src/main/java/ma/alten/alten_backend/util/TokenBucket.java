@@ -0,0 +1,40 @@
+package ma.alten.alten_backend.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds up to {@code capacity} tokens, refilled continuously at {@code tokensPerSecond}. Time is
+ * read from the caller so that buckets can be driven by a test clock.
+ */
+public class TokenBucket {
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final double capacity;
+    private final double tokensPerSecond;
+    private double tokens;
+    private long refilledAt;
+
+    public TokenBucket(double capacity, double tokensPerSecond, long now) {
+        this.capacity = capacity;
+        this.tokensPerSecond = tokensPerSecond;
+        this.tokens = capacity;
+        this.refilledAt = now;
+    }
+
+    /**
+     * Takes {@code cost} tokens if the bucket holds them.
+     *
+     * @return 0 when the tokens were taken, otherwise the nanoseconds until enough of them are back
+     */
+    public synchronized long tryConsume(double cost, long now) {
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerSecond / NANOS_PER_SECOND);
+        refilledAt = now;
+        if (tokens >= cost) {
+            tokens -= cost;
+            return 0;
+        }
+        return (long) Math.ceil((Math.min(cost, capacity) - tokens) * NANOS_PER_SECOND / tokensPerSecond);
+    }
+
+}
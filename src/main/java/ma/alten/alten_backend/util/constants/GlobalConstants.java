@@ -2,7 +2,22 @@ package ma.alten.alten_backend.util.constants;
 
 public final class GlobalConstants {
 
+    public static final String PRODUCT_CACHE = "products";
+
     public static final String PRODUCT_NOT_FOUND = "error.product.not.found";
+    public static final String INVALID_CURSOR = "error.product.invalid.cursor";
+    public static final String INVALID_PAGE_SIZE = "error.product.invalid.page.size";
+    public static final String INVALID_INVENTORY_STATUS = "error.product.invalid.inventory.status";
+    public static final String PRODUCT_VERSION_MISMATCH = "error.product.version.mismatch";
+    public static final String PRODUCT_CONCURRENT_UPDATE = "error.product.concurrent.update";
+    public static final String INSUFFICIENT_STOCK = "error.product.insufficient.stock";
+    public static final String BATCH_TOO_LARGE = "error.product.batch.too.large";
+    public static final String IMPORT_EMPTY = "error.import.empty";
+    public static final String IMPORT_UNKNOWN_COLUMN = "error.import.unknown.column";
+    public static final String IMPORT_UNSUPPORTED_FORMAT = "error.import.unsupported.format";
+    public static final String EXPORT_UNSUPPORTED_FORMAT = "error.export.unsupported.format";
+    public static final String REQUEST_RATE_LIMITED = "error.request.rate.limited";
+    public static final String REQUEST_OVERLOADED = "error.request.overloaded";
 
     private GlobalConstants() {
         throw new UnsupportedOperationException("cannot be instantiated");
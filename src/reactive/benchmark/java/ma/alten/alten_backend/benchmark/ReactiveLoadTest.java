@@ -0,0 +1,163 @@
+package ma.alten.alten_backend.benchmark;
+
+import ma.alten.alten_backend.AltenBackendApiApplication;
+import ma.alten.alten_backend.reactive.ReactiveProductApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Closed-loop HTTP load against the servlet application and the reactive read application, both
+ * serving the same in-memory H2 catalog with the same number of database connections. Prints
+ * throughput and latency percentiles of each; the servlet one runs with its Tomcat thread cap.
+ * <p>
+ * Tunable with {@code -Dbenchmark.requests}, {@code -Dbenchmark.concurrency},
+ * {@code -Dbenchmark.tomcat-threads} and {@code -Dbenchmark.pool-size}.
+ */
+class ReactiveLoadTest {
+
+    private static final int CATALOG_SIZE = 10_000;
+    private static final String DATABASE = "reactive";
+    private static final String DATABASE_OPTIONS = "MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @Test
+    @Tag("benchmark")
+    void compareServletAndReactive() throws Exception {
+        int requests = Integer.getInteger("benchmark.requests", 20_000);
+        int concurrency = Integer.getInteger("benchmark.concurrency", 1_000);
+        int poolSize = Integer.getInteger("benchmark.pool-size", 10);
+        System.out.printf("servlet / reactive load test: %d requests, %d in flight%n", requests, concurrency);
+
+        try (ConfigurableApplicationContext servlet = new SpringApplicationBuilder(AltenBackendApiApplication.class)
+                .run(arguments("server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:" + DATABASE + ";" + DATABASE_OPTIONS,
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                        "spring.jpa.database=H2",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.cache.type=none",
+                        "spring.devtools.restart.enabled=false",
+                        "server.tomcat.threads.max=" + Integer.getInteger("benchmark.tomcat-threads", 50),
+                        "product.listing-cache.enabled=false",
+                        "product.admission.enabled=false",
+                        "product.search.engine=memory",
+                        "product.scheduling.enabled=false",
+                        "product.images.storage-path=" + Files.createTempDirectory("benchmark-images"),
+                        "logging.level.root=WARN"))) {
+            seed(servlet.getBean(JdbcTemplate.class));
+            try (ConfigurableApplicationContext reactive = ReactiveProductApplication.builder()
+                    .run(arguments("server.port=0",
+                            "spring.r2dbc.url=r2dbc:h2:mem:///" + DATABASE + "?options=" + DATABASE_OPTIONS,
+                            "spring.r2dbc.username=sa",
+                            "spring.r2dbc.password=",
+                            "spring.r2dbc.pool.initial-size=" + poolSize,
+                            "spring.r2dbc.pool.max-size=" + poolSize,
+                            "logging.level.root=WARN"))) {
+                HttpClient client = HttpClient.newHttpClient();
+                LoadResult servletResult = measure(client, port(servlet), "/api/products?size=20&withTotal=false", requests, concurrency);
+                LoadResult reactiveResult = measure(client, port(reactive), "/api/products?size=20", requests, concurrency);
+
+                System.out.println("stack     throughput(req/s)   p50(ms)   p95(ms)   p99(ms)   max(ms)");
+                System.out.println(servletResult.format("servlet"));
+                System.out.println(reactiveResult.format("reactive"));
+                assertEquals(0, servletResult.failures());
+                assertEquals(0, reactiveResult.failures());
+            }
+        }
+    }
+
+    /**
+     * Same catalog shape as the JMH benchmarks: categories spread evenly, one product in twenty archived.
+     */
+    private static void seed(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("INSERT INTO category (id, name, normalized_name) VALUES (1, 'Electronics', 'electronics'), "
+                + "(2, 'Kitchen', 'kitchen')");
+        jdbcTemplate.execute("ALTER SEQUENCE category_seq RESTART WITH 3");
+        jdbcTemplate.update("INSERT INTO product (id, code, name, description, category_id, price, quantity, inventory_status, "
+                + "rating, deleted, version, created_at, updated_at) "
+                + "SELECT x, 'SEED' || LPAD(CAST(x AS VARCHAR), 7, '0'), 'Product ' || x, 'Description of product ' || x, "
+                + "CASEWHEN(MOD(x, 2) = 0, 1, 2), 1 + MOD(x * 37, 1000), MOD(x, 200), "
+                + "CASEWHEN(MOD(x, 200) = 0, 'OUTOFSTOCK', CASEWHEN(MOD(x, 200) < 10, 'LOWSTOCK', 'INSTOCK')), "
+                + "MOD(x, 50) / 10.0, MOD(x, 20) = 0, 0, CURRENT_TIMESTAMP, DATEADD('SECOND', -x, CURRENT_TIMESTAMP) "
+                + "FROM SYSTEM_RANGE(1, ?)", CATALOG_SIZE);
+    }
+
+    /**
+     * Command line arguments, which take precedence over the settings of the application's own configuration file.
+     */
+    private static String[] arguments(String... properties) {
+        return Arrays.stream(properties).map(property -> "--" + property).toArray(String[]::new);
+    }
+
+    private static int port(ConfigurableApplicationContext context) {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    private static LoadResult measure(HttpClient client, int port, String listing, int requests, int concurrency) throws InterruptedException {
+        fire(client, port, listing, Math.min(requests, 2_000), concurrency);
+        return fire(client, port, listing, requests, concurrency);
+    }
+
+    /**
+     * Keeps {@code concurrency} requests in flight, alternating the listing and a lookup by id.
+     */
+    private static LoadResult fire(HttpClient client, int port, String listing, int requests, int concurrency) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(concurrency);
+        AtomicInteger failures = new AtomicInteger();
+        long[] latencies = new long[requests];
+        List<CompletableFuture<?>> futures = new ArrayList<>(requests);
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            int index = i;
+            String path = i % 2 == 0 ? listing : "/api/products/" + (1 + i % CATALOG_SIZE);
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+            long sent = System.nanoTime();
+            futures.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                latencies[index] = System.nanoTime() - sent;
+                if (error != null || response.statusCode() >= 500) {
+                    failures.incrementAndGet();
+                }
+                inFlight.release();
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).exceptionally(error -> null).join();
+        double seconds = (System.nanoTime() - start) / 1_000_000_000d;
+        Arrays.sort(latencies);
+        return new LoadResult(requests / seconds, percentile(latencies, 0.50), percentile(latencies, 0.95),
+                percentile(latencies, 0.99), latencies[latencies.length - 1] / 1_000_000d, failures.get());
+    }
+
+    private static double percentile(long[] sortedLatencies, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(index, 0)] / 1_000_000d;
+    }
+
+    private record LoadResult(double throughput, double p50, double p95, double p99, double max, int failures) {
+
+        String format(String stack) {
+            return String.format("%-9s %17.0f %9.1f %9.1f %9.1f %9.1f", stack, throughput, p50, p95, p99, max);
+        }
+
+    }
+
+}
@@ -0,0 +1,29 @@
+package ma.alten.alten_backend.reactive;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+/**
+ * Read-only reactive product API, deployed next to the servlet application which keeps every write.
+ * Reads the same {@code product} table through R2DBC and answers with the same {@code ProductDto}.
+ * Built with the {@code reactive} Maven profile and configured by {@code reactive.yml}.
+ * <p>
+ * Only active in a reactive context, so the servlet application scanning this package ignores it.
+ */
+@SpringBootApplication
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveProductApplication {
+
+    public static void main(String[] args) {
+        builder().run(args);
+    }
+
+    public static SpringApplicationBuilder builder() {
+        return new SpringApplicationBuilder(ReactiveProductApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .properties("spring.config.name=reactive");
+    }
+
+}
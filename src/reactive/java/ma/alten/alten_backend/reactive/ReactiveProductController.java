@@ -0,0 +1,84 @@
+package ma.alten.alten_backend.reactive;
+
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.alten.alten_backend.dto.ProductDto;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/products")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@AllArgsConstructor
+@Slf4j
+public class ReactiveProductController {
+
+    // the bounds of the servlet API: the keyset page size and the /search result cap
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_SEARCH_RESULTS = 100;
+
+    private final ReactiveProductRepository reactiveProductRepository;
+
+    @Operation(summary = "Retrieve a page of products", description = "Récupère une page de produits actifs, les plus récemment modifiés en premier")
+    @GetMapping
+    public Flux<ProductDto> getProducts(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "5") int size
+    ) {
+        if (page < 0) {
+            return Flux.error(badRequest("Page must not be negative"));
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            return Flux.error(badRequest("Page size must be between 1 and " + MAX_PAGE_SIZE));
+        }
+        return reactiveProductRepository.findPage(page, size);
+    }
+
+    @Operation(summary = "Stream every product", description = "Diffuse tous les produits actifs en NDJSON, au rythme de lecture du client")
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ProductDto> streamProducts() {
+        return reactiveProductRepository.streamAll();
+    }
+
+    @Operation(summary = "Search products", description = "Recherche les produits dont le nom, le code ou la description contient le terme")
+    @GetMapping("/search")
+    public Flux<ProductDto> searchProducts(
+            @RequestParam String term,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        if (limit < 1) {
+            return Flux.error(badRequest("Limit must be positive"));
+        }
+        if (term.isBlank()) {
+            return Flux.empty();
+        }
+        String normalized = term.trim().toLowerCase(Locale.ROOT);
+        return reactiveProductRepository.search("%" + escapeLike(normalized) + "%", Math.min(limit, MAX_SEARCH_RESULTS));
+    }
+
+    @Operation(summary = "Retrieve a product by ID", description = "Récupère un produit actif par son identifiant")
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<ProductDto>> getProductById(@PathVariable Long id) {
+        return reactiveProductRepository.findById(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    private static ResponseStatusException badRequest(String reason) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, reason);
+    }
+
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+}
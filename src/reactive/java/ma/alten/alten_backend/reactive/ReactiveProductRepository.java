@@ -0,0 +1,92 @@
+package ma.alten.alten_backend.reactive;
+
+import io.r2dbc.spi.Readable;
+import ma.alten.alten_backend.dto.ProductDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+/**
+ * Active products read with plain SQL straight into {@link ProductDto}, no entity involved.
+ * Queries mirror the servlet application's: the listing order is served by the partial
+ * {@code (updated_at DESC, id DESC) WHERE NOT deleted} index and searches by the trigram indexes.
+ * The category name comes from the small category table joined on the product's category id.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveProductRepository {
+
+    private static final String SELECT = "SELECT p.id, p.code, p.name, p.description, p.image, c.name AS category, p.price, "
+            + "p.quantity, p.internal_reference, p.shell_id, p.inventory_status, p.rating, p.version, p.updated_at "
+            + "FROM product p LEFT JOIN category c ON c.id = p.category_id WHERE NOT p.deleted ";
+
+    private final DatabaseClient databaseClient;
+    private final int fetchSize;
+
+    public ReactiveProductRepository(DatabaseClient databaseClient, @Value("${product.reactive.fetch-size:500}") int fetchSize) {
+        this.databaseClient = databaseClient;
+        this.fetchSize = fetchSize;
+    }
+
+    public Flux<ProductDto> findPage(int page, int size) {
+        return databaseClient.sql(SELECT + "ORDER BY p.updated_at DESC, p.id DESC LIMIT :limit OFFSET :offset")
+                .bind("limit", size)
+                .bind("offset", (long) page * size)
+                .map(ReactiveProductRepository::toProductDto)
+                .all();
+    }
+
+    /**
+     * Every active product, fetched from a cursor {@code fetch-size} rows at a time as the subscriber requests them.
+     */
+    public Flux<ProductDto> streamAll() {
+        return databaseClient.sql(SELECT + "ORDER BY p.id")
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(ReactiveProductRepository::toProductDto)
+                .all();
+    }
+
+    public Mono<ProductDto> findById(Long id) {
+        return databaseClient.sql(SELECT + "AND p.id = :id")
+                .bind("id", id)
+                .map(ReactiveProductRepository::toProductDto)
+                .one();
+    }
+
+    /**
+     * {@code pattern} is the lower-case, escaped LIKE pattern of the searched term.
+     */
+    public Flux<ProductDto> search(String pattern, int limit) {
+        return databaseClient.sql(SELECT + "AND (lower(p.name) LIKE :pattern OR lower(p.code) LIKE :pattern "
+                        + "OR lower(p.description) LIKE :pattern) ORDER BY p.id DESC LIMIT :limit")
+                .bind("pattern", pattern)
+                .bind("limit", limit)
+                .map(ReactiveProductRepository::toProductDto)
+                .all();
+    }
+
+    private static ProductDto toProductDto(Readable row) {
+        return ProductDto.builder()
+                .id(row.get("id", Long.class))
+                .code(row.get("code", String.class))
+                .name(row.get("name", String.class))
+                .description(row.get("description", String.class))
+                .image(row.get("image", String.class))
+                .category(row.get("category", String.class))
+                .price(row.get("price", Double.class))
+                .quantity(row.get("quantity", Integer.class))
+                .internalReference(row.get("internal_reference", String.class))
+                .shellId(row.get("shell_id", Long.class))
+                .inventoryStatus(row.get("inventory_status", String.class))
+                .rating(row.get("rating", Double.class))
+                .version(row.get("version", Long.class))
+                .updatedAt(row.get("updated_at", Instant.class))
+                .build();
+    }
+
+}
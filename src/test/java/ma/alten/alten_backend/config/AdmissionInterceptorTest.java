@@ -0,0 +1,53 @@
+package ma.alten.alten_backend.config;
+
+import ma.alten.alten_backend.service.AdaptiveConcurrencyLimiter;
+import ma.alten.alten_backend.service.ClientRateLimiter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionInterceptorTest {
+
+    @Mock
+    private ClientRateLimiter clientRateLimiter;
+
+    @Mock
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    private AdmissionInterceptor admissionInterceptor;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        admissionInterceptor = new AdmissionInterceptor(clientRateLimiter, concurrencyLimiter, "X-Api-Key", Set.of("known-key"), 100);
+    }
+
+    @Test
+    void client_KnownKey_ShouldBeLimitedPerKey() {
+        MockHttpServletRequest request = request("known-key");
+
+        assertEquals("key:known-key", admissionInterceptor.client(request));
+    }
+
+    @Test
+    void client_UnknownKey_ShouldBeLimitedPerAddress() {
+        assertEquals("address:10.0.0.7", admissionInterceptor.client(request("key-" + System.nanoTime())));
+        assertEquals("address:10.0.0.7", admissionInterceptor.client(request(null)));
+    }
+
+    private static MockHttpServletRequest request(String key) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.setRemoteAddr("10.0.0.7");
+        if (key != null) {
+            request.addHeader("X-Api-Key", key);
+        }
+        return request;
+    }
+
+}
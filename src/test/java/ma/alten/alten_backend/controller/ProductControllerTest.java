@@ -1,8 +1,16 @@
 package ma.alten.alten_backend.controller;
 
+import ma.alten.alten_backend.dto.KeysetPageDto;
+import ma.alten.alten_backend.dto.ListingRevisionDto;
 import ma.alten.alten_backend.dto.ProductDto;
+import ma.alten.alten_backend.dto.ProductFilter;
+import ma.alten.alten_backend.dto.ProductSummaryDto;
+import ma.alten.alten_backend.dto.QuantityAdjustmentDto;
+import ma.alten.alten_backend.exceptions.FunctionalException;
+import ma.alten.alten_backend.exceptions.PreconditionFailedException;
 import ma.alten.alten_backend.exceptions.TechnicalException;
 import ma.alten.alten_backend.service.ProductService;
+import ma.alten.alten_backend.service.ProductStockService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -10,15 +18,23 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.time.Instant;
 import java.util.Collections;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -27,9 +43,14 @@ class ProductControllerTest {
     @Mock
     private ProductService productService;
 
+    @Mock
+    private ProductStockService productStockService;
+
     @InjectMocks
     private ProductController productController;
 
+    private static final Instant UPDATED_AT = Instant.parse("2024-05-01T10:15:30Z");
+
     private ProductDto productDto;
 
     @BeforeEach
@@ -42,6 +63,10 @@ class ProductControllerTest {
         productDto.setPrice(10.0);
     }
 
+    private static ServletWebRequest webRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest("GET", "/api/products"), new MockHttpServletResponse());
+    }
+
     @Test
     void addProduct_ShouldReturnCreatedProduct() throws IOException {
         MockMultipartFile imageFile = new MockMultipartFile("imageFile", "image.jpg", "image/jpeg", new byte[0]);
@@ -57,19 +82,92 @@ class ProductControllerTest {
     @Test
     void getAllProducts_ShouldReturnProductPage() {
         Page<ProductDto> productPage = new PageImpl<>(Collections.singletonList(productDto));
-        when(productService.getAllProducts(0, 5, null, null, null, null, null)).thenReturn(productPage);
+        when(productService.getListingRevision(ProductFilter.NONE, false)).thenReturn(new ListingRevisionDto(UPDATED_AT, 1L));
+        when(productService.getAllProducts(0, 5, null, null, null, null, null, true)).thenReturn(productPage);
+
+        ResponseEntity<Page<ProductDto>> response = productController.getAllProducts(0, 5, null, null, null, null, null, true, webRequest());
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(productPage, response.getBody());
+        assertNotNull(response.getHeaders().getETag());
+        assertEquals(UPDATED_AT.toEpochMilli(), response.getHeaders().getLastModified());
+    }
+
+    @Test
+    void getAllProducts_WithoutRevision_ShouldReturnUntaggedPage() {
+        Page<ProductDto> productPage = new PageImpl<>(Collections.singletonList(productDto));
+        when(productService.getAllProducts(0, 5, null, null, null, null, null, false)).thenReturn(productPage);
 
-        ResponseEntity<Page<ProductDto>> response = productController.getAllProducts(0, 5, null, null, null, null, null);
+        ResponseEntity<Page<ProductDto>> response = productController.getAllProducts(0, 5, null, null, null, null, null, false, webRequest());
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(productPage, response.getBody());
+        assertNull(response.getHeaders().getETag());
+        verify(productService).getListingRevision(ProductFilter.NONE, false);
+    }
+
+    @Test
+    void getAllProducts_WithCurrentETag_ShouldAnswerNotModifiedWithoutListing() {
+        when(productService.getListingRevision(eq(ProductFilter.NONE), anyBoolean())).thenReturn(new ListingRevisionDto(UPDATED_AT, 1L));
+        String eTag = productController.getAllProducts(0, 5, null, null, null, null, null, true, webRequest()).getHeaders().getETag();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, eTag);
+
+        ResponseEntity<Page<ProductDto>> response = productController.getAllProducts(0, 5, null, null, null, null, null, true,
+                new ServletWebRequest(request, new MockHttpServletResponse()));
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        verify(productService, times(1)).getAllProducts(0, 5, null, null, null, null, null, true);
+        verify(productService).getListingRevision(ProductFilter.NONE, true);
+    }
+
+    @Test
+    void getProductSummaries_ShouldReturnSummaryPage() {
+        ProductSummaryDto summary = ProductSummaryDto.builder().id(1L).name("Produit Test").price(10.0).build();
+        Page<ProductSummaryDto> summaryPage = new PageImpl<>(Collections.singletonList(summary));
+        when(productService.getProductSummaries(0, 5, ProductFilter.NONE, true)).thenReturn(summaryPage);
+
+        ResponseEntity<Page<ProductSummaryDto>> response = productController.getProductSummaries(0, 5, null, null, null, null, null, true);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(summaryPage, response.getBody());
     }
 
     @Test
-    void updateProduct_ShouldReturnUpdatedProduct() throws TechnicalException {
-        when(productService.updateProduct(anyLong(), any(ProductDto.class))).thenReturn(productDto);
+    void getProductsKeyset_ShouldReturnKeysetPage() throws FunctionalException {
+        KeysetPageDto<ProductDto> keysetPage = new KeysetPageDto<>(Collections.singletonList(productDto), 1, "next");
+        when(productService.getProductsAfter(null, 5, ProductFilter.NONE)).thenReturn(keysetPage);
 
-        ResponseEntity<ProductDto> response = productController.updateProduct(1L, productDto);
+        ResponseEntity<KeysetPageDto<ProductDto>> response = productController.getProductsKeyset(null, 5, null, null, null, null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(keysetPage, response.getBody());
+    }
+
+    @Test
+    void updateProduct_ShouldReturnUpdatedProduct() throws TechnicalException, FunctionalException {
+        productDto.setVersion(4L);
+        when(productService.updateProduct(anyLong(), any(ProductDto.class), eq(3L))).thenReturn(productDto);
+
+        ResponseEntity<ProductDto> response = productController.updateProduct(1L, "\"3\"", productDto);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(productDto, response.getBody());
+        assertEquals("\"4\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void updateProduct_WithMalformedIfMatch_ShouldFailPrecondition() {
+        assertThrows(PreconditionFailedException.class, () -> productController.updateProduct(1L, "\"abc\"", productDto));
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    void adjustQuantity_ShouldReturnAdjustedProduct() throws TechnicalException, FunctionalException {
+        when(productStockService.adjustQuantity(1L, -2)).thenReturn(productDto);
+
+        ResponseEntity<ProductDto> response = productController.adjustQuantity(1L, new QuantityAdjustmentDto(-2));
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(productDto, response.getBody());
@@ -77,12 +175,31 @@ class ProductControllerTest {
 
     @Test
     void getProductById_ShouldReturnProduct() throws TechnicalException {
+        productDto.setVersion(3L);
+        productDto.setUpdatedAt(UPDATED_AT);
         when(productService.getProductById(1L)).thenReturn(productDto);
 
-        ResponseEntity<ProductDto> response = productController.getProductById(1L);
+        ResponseEntity<ProductDto> response = productController.getProductById(1L, webRequest());
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(productDto, response.getBody());
+        assertEquals("\"3\"", response.getHeaders().getETag());
+        assertEquals(UPDATED_AT.toEpochMilli(), response.getHeaders().getLastModified());
+    }
+
+    @Test
+    void getProductById_WithCurrentETag_ShouldAnswerNotModified() throws TechnicalException {
+        productDto.setVersion(3L);
+        productDto.setUpdatedAt(UPDATED_AT);
+        when(productService.getProductById(1L)).thenReturn(productDto);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products/1");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"3\"");
+
+        ResponseEntity<ProductDto> response = productController.getProductById(1L, new ServletWebRequest(request, new MockHttpServletResponse()));
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"3\"", response.getHeaders().getETag());
+        assertNull(response.getBody());
     }
 
     @Test
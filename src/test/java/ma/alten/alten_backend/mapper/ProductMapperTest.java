@@ -0,0 +1,99 @@
+package ma.alten.alten_backend.mapper;
+
+import ma.alten.alten_backend.dto.ProductDto;
+import ma.alten.alten_backend.enumeration.InventoryStatus;
+import ma.alten.alten_backend.model.Product;
+import ma.alten.alten_backend.service.CategoryDictionary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProductMapperTest {
+
+    @Mock
+    private CategoryDictionary categoryDictionary;
+
+    private ProductMapper productMapper;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        productMapper = Mappers.getMapper(ProductMapper.class);
+        productMapper.setCategoryDictionary(categoryDictionary);
+    }
+
+    @Test
+    void patchProduct_PartialItem_ShouldKeepOmittedFields() {
+        Product product = product();
+        ProductDto patch = new ProductDto();
+        patch.setQuantity(3);
+        patch.setInventoryStatus("LOWSTOCK");
+
+        productMapper.patchProduct(patch, product);
+
+        assertEquals(3, product.getQuantity());
+        assertEquals(InventoryStatus.LOWSTOCK, product.getInventoryStatus());
+        assertEquals("Chair", product.getName());
+        assertEquals("A wooden chair", product.getDescription());
+        assertEquals(45.0, product.getPrice());
+        assertEquals(2, product.getCategoryId());
+        assertEquals(4.5, product.getRating());
+        assertEquals("CHAIR001", product.getCode());
+        assertEquals(7L, product.getVersion());
+        verifyNoInteractions(categoryDictionary);
+    }
+
+    @Test
+    void patchProduct_WithCategory_ShouldResolveIt() {
+        Product product = product();
+        ProductDto patch = new ProductDto();
+        patch.setCategory("Garden");
+        when(categoryDictionary.resolve("Garden")).thenReturn(5);
+
+        productMapper.patchProduct(patch, product);
+
+        assertEquals(5, product.getCategoryId());
+        assertEquals("Chair", product.getName());
+    }
+
+    @Test
+    void toProduct_ShouldIgnoreClientAssignedFields() {
+        ProductDto productDto = new ProductDto();
+        productDto.setId(9L);
+        productDto.setVersion(3L);
+        productDto.setUpdatedAt(Instant.parse("2024-05-01T10:15:30Z"));
+        productDto.setName("Chair");
+
+        Product product = productMapper.toProduct(productDto);
+
+        assertNull(product.getId());
+        assertNull(product.getVersion());
+        assertNull(product.getUpdatedAt());
+        assertEquals("Chair", product.getName());
+        assertFalse(product.getDeleted());
+    }
+
+    private static Product product() {
+        Product product = new Product();
+        product.setId(1L);
+        product.setCode("CHAIR001");
+        product.setName("Chair");
+        product.setDescription("A wooden chair");
+        product.setCategoryId(2);
+        product.setPrice(45.0);
+        product.setQuantity(20);
+        product.setInventoryStatus(InventoryStatus.INSTOCK);
+        product.setRating(4.5);
+        product.setVersion(7L);
+        product.setUpdatedAt(Instant.parse("2024-05-01T10:15:30Z"));
+        return product;
+    }
+
+}
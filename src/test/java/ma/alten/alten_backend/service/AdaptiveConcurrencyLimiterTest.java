@@ -0,0 +1,89 @@
+package ma.alten.alten_backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ma.alten.alten_backend.enumeration.RequestCost;
+import ma.alten.alten_backend.exceptions.OverloadedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        limiter = new AdaptiveConcurrencyLimiter(10, 2, 100, 0.5, Duration.ofSeconds(1), meterRegistry, now::get);
+    }
+
+    @Test
+    void acquire_ExpensiveRequests_ShouldLeaveRoomForCheapOnes() throws OverloadedException {
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire(RequestCost.EXPENSIVE);
+        }
+
+        OverloadedException e = assertThrows(OverloadedException.class, () -> limiter.acquire(RequestCost.EXPENSIVE));
+        assertEquals(Duration.ofSeconds(1), e.getRetryAfter());
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire(RequestCost.CHEAP);
+        }
+        assertThrows(OverloadedException.class, () -> limiter.acquire(RequestCost.CHEAP));
+        assertEquals(1, meterRegistry.get("product.admission.rejected").tag("reason", "shed").tag("cost", "cheap").counter().count());
+        assertEquals(10, limiter.getInFlight());
+    }
+
+    @Test
+    void release_WhenLatencyRises_ShouldShrinkLimit() throws OverloadedException {
+        saturate(TimeUnit.MILLISECONDS.toNanos(10), 50);
+        int steadyLimit = limiter.getLimit();
+
+        saturate(TimeUnit.MILLISECONDS.toNanos(100), 20);
+
+        assertTrue(limiter.getLimit() < steadyLimit, "limit " + limiter.getLimit() + " should be below " + steadyLimit);
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void release_WhenLatencyIsSteady_ShouldGrowLimit() throws OverloadedException {
+        saturate(TimeUnit.MILLISECONDS.toNanos(10), 20);
+
+        assertTrue(limiter.getLimit() > 10);
+    }
+
+    @Test
+    void release_WhenMostlyIdle_ShouldKeepLimit() throws OverloadedException {
+        for (int i = 0; i < 20; i++) {
+            long startedAt = limiter.acquire(RequestCost.CHEAP);
+            now.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+            limiter.release(startedAt);
+        }
+
+        assertEquals(10, limiter.getLimit());
+    }
+
+    /**
+     * Runs {@code rounds} of as many requests as the limit allows, started together and lasting {@code latency}.
+     */
+    private void saturate(long latency, int rounds) throws OverloadedException {
+        for (int round = 0; round < rounds; round++) {
+            List<Long> started = new ArrayList<>();
+            int concurrency = limiter.getLimit();
+            for (int i = 0; i < concurrency; i++) {
+                started.add(limiter.acquire(RequestCost.CHEAP));
+            }
+            now.addAndGet(latency);
+            started.forEach(limiter::release);
+        }
+    }
+
+}
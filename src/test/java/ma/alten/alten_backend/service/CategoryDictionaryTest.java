@@ -0,0 +1,124 @@
+package ma.alten.alten_backend.service;
+
+import ma.alten.alten_backend.model.Category;
+import ma.alten.alten_backend.repository.CategoryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CategoryDictionaryTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    private final AtomicLong now = new AtomicLong();
+    private CategoryDictionary categoryDictionary;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(categoryRepository.findAll()).thenReturn(List.of(new Category(1, "Electronics", "electronics")));
+        categoryDictionary = new CategoryDictionary(categoryRepository, Duration.ofMinutes(1), 100, now::get);
+        categoryDictionary.load();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void normalize_ShouldIgnoreCaseAndSpacing() {
+        assertEquals("home garden", CategoryDictionary.normalize("  Home   GARDEN "));
+        assertNull(CategoryDictionary.normalize(" "));
+        assertNull(CategoryDictionary.normalize(null));
+        assertEquals("Home Garden", CategoryDictionary.displayName("  Home   Garden "));
+    }
+
+    @Test
+    void find_LoadedCategory_ShouldNotQueryRepository() {
+        assertEquals(Optional.of(1), categoryDictionary.find(" electronics"));
+        assertEquals("Electronics", categoryDictionary.name(1));
+
+        verify(categoryRepository, never()).findByNormalizedName(any());
+        verify(categoryRepository, never()).findById(any());
+    }
+
+    @Test
+    void find_CategoryCreatedElsewhere_ShouldBeReadOnce() {
+        when(categoryRepository.findByNormalizedName("toys")).thenReturn(Optional.of(new Category(2, "Toys", "toys")));
+
+        assertEquals(Optional.of(2), categoryDictionary.find("Toys"));
+        assertEquals(Optional.of(2), categoryDictionary.find("TOYS"));
+        assertEquals("Toys", categoryDictionary.name(2));
+
+        verify(categoryRepository, times(1)).findByNormalizedName("toys");
+    }
+
+    @Test
+    void find_UnknownCategory_ShouldBeLookedUpAgainOnlyOnceExpired() {
+        when(categoryRepository.findByNormalizedName("garden")).thenReturn(Optional.empty());
+
+        assertEquals(Optional.empty(), categoryDictionary.find("Garden"));
+        assertEquals(Optional.empty(), categoryDictionary.find("garden "));
+        verify(categoryRepository, times(1)).findByNormalizedName("garden");
+
+        now.addAndGet(Duration.ofMinutes(2).toNanos());
+        assertEquals(Optional.empty(), categoryDictionary.find("Garden"));
+        verify(categoryRepository, times(2)).findByNormalizedName("garden");
+    }
+
+    @Test
+    void resolve_UnknownCategory_ShouldInsertIt() {
+        when(categoryRepository.insertIfAbsent("Home Garden", "home garden")).thenReturn(1);
+        when(categoryRepository.findByNormalizedName("home garden")).thenReturn(Optional.of(new Category(3, "Home Garden", "home garden")));
+
+        assertEquals(3, categoryDictionary.resolve(" Home  Garden"));
+        assertEquals(3, categoryDictionary.resolve("home garden"));
+        assertEquals("Home Garden", categoryDictionary.name(3));
+        assertNull(categoryDictionary.resolve(""));
+
+        verify(categoryRepository, times(1)).insertIfAbsent(any(), any());
+    }
+
+    @Test
+    void resolve_CreatedConcurrently_ShouldUseExistingCategory() {
+        when(categoryRepository.insertIfAbsent("Toys", "toys")).thenReturn(0);
+        when(categoryRepository.findByNormalizedName("toys")).thenReturn(Optional.of(new Category(4, "toys", "toys")));
+
+        assertEquals(4, categoryDictionary.resolve("Toys"));
+        assertEquals("toys", categoryDictionary.name(4));
+    }
+
+    @Test
+    void resolve_InsideTransaction_ShouldOnlyRegisterOnCommit() {
+        when(categoryRepository.insertIfAbsent("Toys", "toys")).thenReturn(1);
+        when(categoryRepository.findByNormalizedName("toys")).thenReturn(Optional.of(new Category(5, "Toys", "toys")));
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertEquals(5, categoryDictionary.resolve("Toys"));
+        assertEquals(5, categoryDictionary.resolve("Toys"));
+        verify(categoryRepository, times(2)).insertIfAbsent("Toys", "toys");
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+        assertEquals(5, categoryDictionary.resolve("Toys"));
+        verify(categoryRepository, times(2)).insertIfAbsent("Toys", "toys");
+    }
+
+}
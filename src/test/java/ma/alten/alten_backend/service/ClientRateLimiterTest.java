@@ -0,0 +1,58 @@
+package ma.alten.alten_backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ma.alten.alten_backend.enumeration.RequestCost;
+import ma.alten.alten_backend.exceptions.RateLimitedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+    private ClientRateLimiter clientRateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // 10 tokens per second, 10 at most, an expensive request takes 5
+        clientRateLimiter = new ClientRateLimiter(10, 10, 5, 100, meterRegistry, now::get);
+    }
+
+    @Test
+    void acquire_OverBurst_ShouldBeRateLimitedUntilRefilled() throws RateLimitedException {
+        for (int i = 0; i < 10; i++) {
+            clientRateLimiter.acquire("key:a", RequestCost.CHEAP);
+        }
+
+        RateLimitedException e = assertThrows(RateLimitedException.class, () -> clientRateLimiter.acquire("key:a", RequestCost.CHEAP));
+        assertEquals(Duration.ofMillis(100), e.getRetryAfter());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertDoesNotThrow(() -> clientRateLimiter.acquire("key:a", RequestCost.CHEAP));
+    }
+
+    @Test
+    void acquire_ExpensiveRequests_ShouldUseMoreTokens() throws RateLimitedException {
+        clientRateLimiter.acquire("key:a", RequestCost.EXPENSIVE);
+        clientRateLimiter.acquire("key:a", RequestCost.EXPENSIVE);
+
+        assertThrows(RateLimitedException.class, () -> clientRateLimiter.acquire("key:a", RequestCost.CHEAP));
+        assertEquals(1, meterRegistry.get("product.admission.rejected").tag("reason", "rate_limited").tag("cost", "cheap").counter().count());
+    }
+
+    @Test
+    void acquire_ShouldKeepOneBucketPerClient() throws RateLimitedException {
+        clientRateLimiter.acquire("key:a", RequestCost.EXPENSIVE);
+        clientRateLimiter.acquire("key:a", RequestCost.EXPENSIVE);
+
+        assertDoesNotThrow(() -> clientRateLimiter.acquire("key:b", RequestCost.EXPENSIVE));
+    }
+
+}
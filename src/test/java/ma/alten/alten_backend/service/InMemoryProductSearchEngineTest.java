@@ -0,0 +1,83 @@
+package ma.alten.alten_backend.service;
+
+import jakarta.persistence.EntityManager;
+import ma.alten.alten_backend.dto.ProductDto;
+import ma.alten.alten_backend.event.ProductChangedEvent;
+import ma.alten.alten_backend.mapper.ProductMapper;
+import ma.alten.alten_backend.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryProductSearchEngineTest {
+
+    private InMemoryProductSearchEngine searchEngine;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductMapper productMapper;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        searchEngine = new InMemoryProductSearchEngine(productRepository, productMapper, entityManager, transactionManager);
+        searchEngine.index(product(1L, "PRODUCT001", "Chaise en chêne", "Chaise de salle à manger"));
+        searchEngine.index(product(2L, "PRODUCT002", "Table basse", "Table en chêne massif"));
+        searchEngine.index(product(3L, "PRODUCT003", "Lampe", "Lampe de bureau"));
+    }
+
+    @Test
+    void search_ShouldIgnoreCaseAndAccents() {
+        List<ProductDto> result = searchEngine.search("CHENE", 10);
+
+        assertEquals(List.of(2L, 1L), result.stream().map(ProductDto::getId).toList());
+    }
+
+    @Test
+    void search_ShouldMatchCodes() {
+        List<ProductDto> result = searchEngine.search("product003", 10);
+
+        assertEquals(3L, result.get(0).getId());
+    }
+
+    @Test
+    void search_ShouldTolerateTypos() {
+        List<ProductDto> result = searchEngine.search("tabel", 10);
+
+        assertEquals(2L, result.get(0).getId());
+    }
+
+    @Test
+    void onProductChanged_ShouldReindexAndRemove() {
+        ProductDto renamed = product(3L, "PRODUCT003", "Lampadaire", "Lampadaire halogène");
+        searchEngine.onProductChanged(ProductChangedEvent.updated(null, renamed));
+        assertEquals(3L, searchEngine.search("halogene", 10).get(0).getId());
+
+        searchEngine.onProductChanged(ProductChangedEvent.archived(renamed));
+        assertTrue(searchEngine.search("halogene", 10).isEmpty());
+    }
+
+    private static ProductDto product(Long id, String code, String name, String description) {
+        ProductDto productDto = new ProductDto();
+        productDto.setId(id);
+        productDto.setCode(code);
+        productDto.setName(name);
+        productDto.setDescription(description);
+        return productDto;
+    }
+
+}
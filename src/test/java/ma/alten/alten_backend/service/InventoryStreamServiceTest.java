@@ -0,0 +1,143 @@
+package ma.alten.alten_backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ma.alten.alten_backend.dto.ProductDto;
+import ma.alten.alten_backend.event.ProductChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class InventoryStreamServiceTest {
+
+    private InventoryStreamService inventoryStreamService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @Mock
+    private CategoryDictionary categoryDictionary;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(categoryDictionary.find(any())).thenReturn(Optional.empty());
+        meterRegistry = new SimpleMeterRegistry();
+        inventoryStreamService = new InventoryStreamService(categoryDictionary, 2, 1, Duration.ofMinutes(1), Duration.ofMillis(10), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        inventoryStreamService.shutdown();
+    }
+
+    @Test
+    void inventoryChanged_ShouldOnlyConsiderStatusAndQuantity() {
+        ProductDto before = ProductDto.builder().id(1L).name("Avant").inventoryStatus("INSTOCK").quantity(20).build();
+
+        assertFalse(InventoryStreamService.inventoryChanged(before,
+                ProductDto.builder().id(1L).name("Après").inventoryStatus("INSTOCK").quantity(20).build()));
+        assertTrue(InventoryStreamService.inventoryChanged(before,
+                ProductDto.builder().id(1L).inventoryStatus("LOWSTOCK").quantity(20).build()));
+        assertTrue(InventoryStreamService.inventoryChanged(before,
+                ProductDto.builder().id(1L).inventoryStatus("INSTOCK").quantity(19).build()));
+        assertTrue(InventoryStreamService.inventoryChanged(null, before));
+    }
+
+    @Test
+    void subscribe_ShouldRegisterSubscriberUntilShutdown() {
+        SseEmitter emitter = inventoryStreamService.subscribe(Set.of(1L), null);
+
+        assertNotNull(emitter);
+        assertEquals(1, inventoryStreamService.subscriberCount());
+        assertEquals(1.0, meterRegistry.get("product.inventory.stream.subscribers").gauge().value());
+
+        inventoryStreamService.shutdown();
+
+        assertEquals(0, inventoryStreamService.subscriberCount());
+    }
+
+    @Test
+    void onProductChanged_ShouldIgnoreArchivedProducts() {
+        inventoryStreamService.subscribe(null, null);
+
+        assertDoesNotThrow(() -> inventoryStreamService.onProductChanged(
+                ProductChangedEvent.archived(ProductDto.builder().id(1L).build())));
+        assertEquals(0.0, meterRegistry.get("product.inventory.stream.dropped").counter().count());
+    }
+
+    @Test
+    void onProductChanged_ShouldMatchCategoryById() throws InterruptedException {
+        when(categoryDictionary.find("books")).thenReturn(Optional.of(3));
+        when(categoryDictionary.find("Books")).thenReturn(Optional.of(3));
+        RecordingEmitter books = new RecordingEmitter();
+        RecordingEmitter toys = new RecordingEmitter();
+        inventoryStreamService.subscribe(books, null, "books");
+        inventoryStreamService.subscribe(toys, null, "Toys");
+
+        inventoryStreamService.onProductChanged(ProductChangedEvent.updated(null,
+                ProductDto.builder().id(1L).category("Books").inventoryStatus("LOWSTOCK").quantity(2).build()));
+
+        assertTrue(books.sent.await(5, TimeUnit.SECONDS));
+        assertEquals(1, toys.sent.getCount());
+    }
+
+    @Test
+    void closeStalledSubscribers_ShouldFreeTheSenderForOtherSubscribers() throws InterruptedException {
+        inventoryStreamService.subscribe(new BlockingEmitter(), Set.of(1L), null);
+        RecordingEmitter other = new RecordingEmitter();
+        inventoryStreamService.subscribe(other, Set.of(1L), null);
+
+        inventoryStreamService.onProductChanged(ProductChangedEvent.updated(null,
+                ProductDto.builder().id(1L).inventoryStatus("OUTOFSTOCK").quantity(0).build()));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((other.sent.getCount() > 0 || inventoryStreamService.subscriberCount() > 1) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            inventoryStreamService.closeStalledSubscribers();
+        }
+        assertEquals(0, other.sent.getCount());
+        assertEquals(1, inventoryStreamService.subscriberCount());
+        assertEquals(1.0, meterRegistry.get("product.inventory.stream.stalled").counter().count());
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final CountDownLatch sent = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sent.countDown();
+        }
+
+    }
+
+    /**
+     * A client that stopped reading: the write only ends when interrupted.
+     */
+    private static class BlockingEmitter extends SseEmitter {
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                throw new IOException("write interrupted", e);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,79 @@
+package ma.alten.alten_backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ma.alten.alten_backend.repository.ProductArchiveRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class ProductArchivalJobTest {
+
+    private ProductArchivalJob productArchivalJob;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @Mock
+    private ProductArchiveRepository productArchiveRepository;
+
+    @Mock
+    private ProductImageService productImageService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        productArchivalJob = new ProductArchivalJob(productArchiveRepository, productImageService, transactionManager, meterRegistry,
+                Duration.ofDays(90), 2, Duration.ZERO, Duration.ofHours(1));
+    }
+
+    @Test
+    void archiveProducts_ShouldMoveBatchesUntilAPartialOne() {
+        Instant cutoff = Instant.now();
+        when(productArchiveRepository.countArchivedBefore(cutoff)).thenReturn(3L);
+        when(productArchiveRepository.findArchivedBefore(cutoff, 2)).thenReturn(List.of(1L, 2L), List.of(3L));
+        when(productArchiveRepository.move(eq(List.of(1L, 2L)), any(Instant.class))).thenReturn(2);
+        when(productArchiveRepository.move(eq(List.of(3L)), any(Instant.class))).thenReturn(1);
+
+        long moved = productArchivalJob.archiveProducts(cutoff);
+
+        assertEquals(3, moved);
+        verify(productArchiveRepository, times(2)).findArchivedBefore(cutoff, 2);
+        assertEquals(3.0, meterRegistry.get("product.archival.moved").counter().count());
+        assertEquals(0.0, meterRegistry.get("product.archival.remaining").gauge().value());
+    }
+
+    @Test
+    void archiveProducts_WithNothingToMove_ShouldNotWrite() {
+        when(productArchiveRepository.findArchivedBefore(any(Instant.class), anyInt())).thenReturn(List.of());
+
+        assertEquals(0, productArchivalJob.archiveProducts(Instant.now()));
+        verify(productArchiveRepository, never()).move(any(), any());
+    }
+
+    @Test
+    void collectOrphanImages_ShouldKeepReferencedImages() throws IOException {
+        Instant cutoff = Instant.now();
+        when(productArchiveRepository.findReferencedImages()).thenReturn(Set.of("image.png"));
+        when(productImageService.collectOrphans(Set.of("image.png"), cutoff)).thenReturn(4);
+
+        assertEquals(4, productArchivalJob.collectOrphanImages(cutoff));
+        assertEquals(4.0, meterRegistry.get("product.archival.images.deleted").counter().count());
+    }
+
+}
@@ -0,0 +1,124 @@
+package ma.alten.alten_backend.service;
+
+import ma.alten.alten_backend.config.Messages;
+import ma.alten.alten_backend.dto.BatchUpdateResultDto;
+import ma.alten.alten_backend.dto.ProductDto;
+import ma.alten.alten_backend.enumeration.BatchItemStatus;
+import ma.alten.alten_backend.event.ProductChangedEvent;
+import ma.alten.alten_backend.exceptions.FunctionalException;
+import ma.alten.alten_backend.mapper.ProductMapper;
+import ma.alten.alten_backend.model.Product;
+import ma.alten.alten_backend.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class ProductBatchServiceTest {
+
+    private ProductBatchService productBatchService;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductMapper productMapper;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private Messages messages;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        productBatchService = new ProductBatchService(productRepository, productMapper, transactionManager, messages,
+                eventPublisher, 3, 3);
+        when(productRepository.findAllById(anyList())).thenReturn(List.of(product(1L), product(2L)));
+        when(productMapper.toProductDto(any(Product.class))).thenAnswer(invocation -> {
+            ProductDto productDto = new ProductDto();
+            productDto.setId(invocation.<Product>getArgument(0).getId());
+            return productDto;
+        });
+    }
+
+    @Test
+    void getProducts_ShouldKeepRequestOrderAndSkipUnknownIds() throws FunctionalException {
+        List<ProductDto> result = productBatchService.getProducts(List.of(2L, 9L, 1L));
+
+        assertEquals(List.of(2L, 1L), result.stream().map(ProductDto::getId).toList());
+        verify(productRepository, times(1)).findAllById(List.of(2L, 9L, 1L));
+    }
+
+    @Test
+    void getProducts_ShouldRejectOversizedBatch() {
+        assertThrows(FunctionalException.class, () -> productBatchService.getProducts(List.of(1L, 2L, 3L, 4L)));
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void updateProducts_ShouldReportStatusPerItem() throws FunctionalException {
+        List<BatchUpdateResultDto> results = productBatchService.updateProducts(List.of(
+                update(1L, "INSTOCK"), update(9L, "INSTOCK"), update(2L, "UNKNOWN")));
+
+        assertEquals(List.of(BatchItemStatus.UPDATED, BatchItemStatus.NOT_FOUND, BatchItemStatus.INVALID),
+                results.stream().map(BatchUpdateResultDto::getStatus).toList());
+        verify(productRepository, times(1)).findAllById(anyList());
+        verify(productMapper, times(1)).patchProduct(any(ProductDto.class), any(Product.class));
+        verify(eventPublisher, times(1)).publishEvent(any(ProductChangedEvent.class));
+    }
+
+    @Test
+    void updateProducts_ShouldReturnProductsAsFlushed() throws FunctionalException {
+        Product product = product(1L);
+        product.setVersion(4L);
+        when(productRepository.findAllById(anyList())).thenReturn(List.of(product));
+        when(productMapper.toProductDto(any(Product.class))).thenAnswer(invocation -> {
+            ProductDto productDto = new ProductDto();
+            productDto.setId(invocation.<Product>getArgument(0).getId());
+            productDto.setVersion(invocation.<Product>getArgument(0).getVersion());
+            return productDto;
+        });
+        doAnswer(invocation -> {
+            product.setVersion(5L);
+            return null;
+        }).when(productRepository).flush();
+
+        List<BatchUpdateResultDto> results = productBatchService.updateProducts(List.of(update(1L, "INSTOCK"), update(9L, "INSTOCK")));
+
+        assertEquals(5L, results.get(0).getProduct().getVersion());
+        assertNull(results.get(1).getProduct());
+        ArgumentCaptor<ProductChangedEvent> event = ArgumentCaptor.forClass(ProductChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(4L, event.getValue().before().getVersion());
+        assertEquals(5L, event.getValue().after().getVersion());
+    }
+
+    private static Product product(Long id) {
+        Product product = new Product();
+        product.setId(id);
+        return product;
+    }
+
+    private static ProductDto update(Long id, String inventoryStatus) {
+        ProductDto productDto = new ProductDto();
+        productDto.setId(id);
+        productDto.setInventoryStatus(inventoryStatus);
+        return productDto;
+    }
+
+}
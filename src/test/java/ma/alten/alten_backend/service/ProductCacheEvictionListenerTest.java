@@ -0,0 +1,122 @@
+package ma.alten.alten_backend.service;
+
+import ma.alten.alten_backend.dto.ProductDto;
+import ma.alten.alten_backend.event.ProductChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static ma.alten.alten_backend.util.constants.GlobalConstants.PRODUCT_CACHE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCacheEvictionListenerTest {
+
+    private AnnotationConfigApplicationContext context;
+    private Cache cache;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigApplicationContext(ListenerConfiguration.class);
+        cache = context.getBean(CacheManager.class).getCache(PRODUCT_CACHE);
+        cache.put(1L, product());
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void onProductChanged_ShouldEvictOnlyOnceCommitted() {
+        transactionTemplate.executeWithoutResult(status -> {
+            context.publishEvent(ProductChangedEvent.updated(product(), product()));
+            assertNotNull(cache.get(1L));
+        });
+
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void onProductChanged_RolledBack_ShouldKeepEntry() {
+        transactionTemplate.executeWithoutResult(status -> {
+            context.publishEvent(ProductChangedEvent.archived(product()));
+            status.setRollbackOnly();
+        });
+
+        assertNotNull(cache.get(1L));
+    }
+
+    @Test
+    void onProductChanged_OutsideTransaction_ShouldEvictImmediately() {
+        context.publishEvent(ProductChangedEvent.deleted(1L, product()));
+
+        assertNull(cache.get(1L));
+    }
+
+    private static ProductDto product() {
+        ProductDto productDto = new ProductDto();
+        productDto.setId(1L);
+        productDto.setName("Chair");
+        return productDto;
+    }
+
+    @Configuration
+    @EnableTransactionManagement
+    static class ListenerConfiguration {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager(PRODUCT_CACHE);
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager() {
+            return new NoResourceTransactionManager();
+        }
+
+        @Bean
+        ProductCacheEvictionListener productCacheEvictionListener(CacheManager cacheManager) {
+            return new ProductCacheEvictionListener(cacheManager);
+        }
+
+    }
+
+    /**
+     * Runs the transaction synchronizations, which is all the listener depends on, without a resource.
+     */
+    static class NoResourceTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+
+    }
+
+}
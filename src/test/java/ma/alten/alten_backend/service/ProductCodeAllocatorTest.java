@@ -0,0 +1,90 @@
+package ma.alten.alten_backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCodeAllocatorTest {
+
+    private static final int BLOCK_SIZE = 50;
+
+    private CountingBlockSource blockSource;
+    private ProductCodeAllocator productCodeAllocator;
+
+    @BeforeEach
+    void setUp() {
+        blockSource = new CountingBlockSource();
+        productCodeAllocator = new ProductCodeAllocator(blockSource, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        productCodeAllocator.shutdown();
+    }
+
+    @Test
+    void nextCode_ShouldFormatSequentialCodes() {
+        assertEquals("PRODUCT001", productCodeAllocator.nextCode());
+        assertEquals("PRODUCT002", productCodeAllocator.nextCode());
+    }
+
+    @Test
+    void nextCode_ConcurrentInserts_ShouldNeverCollide() throws Exception {
+        int inserts = 800;
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        Set<String> codes = ConcurrentHashMap.newKeySet();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < inserts; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return codes.add(productCodeAllocator.nextCode());
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                assertEquals(Boolean.TRUE, future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(inserts, codes.size());
+        // one round-trip per block, plus at most one block prefetched ahead
+        assertTrue(blockSource.reservations.get() <= inserts / BLOCK_SIZE + 1,
+                "unexpected reservations: " + blockSource.reservations.get());
+    }
+
+    private static final class CountingBlockSource implements CodeBlockSource {
+
+        private final AtomicLong sequence = new AtomicLong(1);
+        private final AtomicInteger reservations = new AtomicInteger();
+
+        @Override
+        public long reserveBlock() {
+            reservations.incrementAndGet();
+            return sequence.getAndAdd(BLOCK_SIZE);
+        }
+
+        @Override
+        public int blockSize() {
+            return BLOCK_SIZE;
+        }
+
+    }
+
+}
@@ -0,0 +1,94 @@
+package ma.alten.alten_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import ma.alten.alten_backend.config.Messages;
+import ma.alten.alten_backend.dto.ProductDto;
+import ma.alten.alten_backend.enumeration.ExportFormat;
+import ma.alten.alten_backend.exceptions.FunctionalException;
+import ma.alten.alten_backend.mapper.ProductMapper;
+import ma.alten.alten_backend.model.Product;
+import ma.alten.alten_backend.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProductExportServiceTest {
+
+    private ProductExportService productExportService;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductMapper productMapper;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private Messages messages;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        productExportService = new ProductExportService(productRepository, productMapper, entityManager,
+                transactionManager, new ObjectMapper(), messages);
+
+        product = new Product();
+        product.setId(1L);
+        ProductDto productDto = new ProductDto();
+        productDto.setId(1L);
+        productDto.setCode("PRODUCT001");
+        productDto.setName("Table, oak");
+        when(productRepository.streamAllWithDeletedIsFalse()).thenReturn(Stream.of(product));
+        when(productMapper.toProductDto(product)).thenReturn(productDto);
+    }
+
+    @Test
+    void exportProducts_Csv_ShouldWriteHeaderAndDetachRows() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        productExportService.exportProducts(outputStream, ExportFormat.CSV, false);
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].startsWith("1,PRODUCT001,\"Table, oak\","));
+        verify(entityManager).detach(product);
+    }
+
+    @Test
+    void exportProducts_GzipNdjson_ShouldBeDecompressible() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        productExportService.exportProducts(outputStream, ExportFormat.NDJSON, true);
+
+        try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            String content = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+            assertTrue(content.startsWith("{\"id\":1,\"code\":\"PRODUCT001\""));
+        }
+    }
+
+    @Test
+    void resolveFormat_Unknown_ShouldThrowFunctionalException() {
+        assertThrows(FunctionalException.class, () -> productExportService.resolveFormat("xml"));
+    }
+
+}
@@ -0,0 +1,151 @@
+package ma.alten.alten_backend.service;
+
+import jakarta.persistence.EntityManager;
+import ma.alten.alten_backend.dto.FacetCountDto;
+import ma.alten.alten_backend.dto.FacetQuery;
+import ma.alten.alten_backend.dto.FacetedSearchResultDto;
+import ma.alten.alten_backend.dto.ProductDto;
+import ma.alten.alten_backend.enumeration.InventoryStatus;
+import ma.alten.alten_backend.event.ProductChangedEvent;
+import ma.alten.alten_backend.mapper.ProductMapper;
+import ma.alten.alten_backend.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductFacetIndexTest {
+
+    private ProductFacetIndex productFacetIndex;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductMapper productMapper;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        productFacetIndex = new ProductFacetIndex(productRepository, productMapper, entityManager, transactionManager,
+                new double[]{10, 100});
+        productFacetIndex.upsert(product(1L, "Chaise en chêne", "Chairs", InventoryStatus.INSTOCK, 45.0));
+        productFacetIndex.upsert(product(2L, "Chaise pliante", "Chairs", InventoryStatus.LOWSTOCK, 9.0));
+        productFacetIndex.upsert(product(3L, "Table en chêne", "Tables", InventoryStatus.INSTOCK, 250.0));
+    }
+
+    @Test
+    void search_ShouldIntersectWordsAndReturnFacets() {
+        FacetedSearchResultDto result = productFacetIndex.search(new FacetQuery("chene", null, null, null, null, 0, 10));
+
+        assertEquals(2, result.getTotal());
+        assertEquals(List.of(3L, 1L), result.getProducts().stream().map(ProductDto::getId).toList());
+        assertEquals(Map.of("Chairs", 1L, "Tables", 1L), asMap(result.getCategories()));
+        assertEquals(Map.of("*-10", 0L, "10-100", 1L, "100-*", 1L), asMap(result.getPriceRanges()));
+    }
+
+    @Test
+    void search_FacetCountsShouldIgnoreTheirOwnFilter() {
+        FacetedSearchResultDto result = productFacetIndex.search(new FacetQuery(null, "Chairs", null, null, null, 0, 10));
+
+        assertEquals(2, result.getTotal());
+        assertEquals(Map.of("Chairs", 2L, "Tables", 1L), asMap(result.getCategories()));
+        assertEquals(Map.of("INSTOCK", 1L, "LOWSTOCK", 1L), asMap(result.getInventoryStatuses()));
+    }
+
+    @Test
+    void search_ShouldFilterOnPriceRange() {
+        FacetedSearchResultDto result = productFacetIndex.search(new FacetQuery(null, null, null, 9.0, 45.0, 0, 10));
+
+        assertEquals(List.of(2L, 1L), result.getProducts().stream().map(ProductDto::getId).toList());
+    }
+
+    @Test
+    void onProductChanged_ShouldMoveProductBetweenFacets() {
+        productFacetIndex.onProductChanged(ProductChangedEvent.updated(null,
+                product(2L, "Chaise pliante", "Chairs", InventoryStatus.OUTOFSTOCK, 9.0)));
+        productFacetIndex.onProductChanged(ProductChangedEvent.archived(product(3L, "Table en chêne", "Tables", InventoryStatus.INSTOCK, 250.0)));
+
+        FacetedSearchResultDto result = productFacetIndex.search(new FacetQuery(null, null, null, null, null, 0, 10));
+
+        assertEquals(2, result.getTotal());
+        assertEquals(Map.of("INSTOCK", 1L, "OUTOFSTOCK", 1L), asMap(result.getInventoryStatuses()));
+        assertEquals(Map.of("Chairs", 2L), asMap(result.getCategories()));
+    }
+
+    @Test
+    void search_PriceOnBucketBound_ShouldCountInBothBuckets() {
+        productFacetIndex.upsert(product(4L, "Buffet en chêne", "Tables", InventoryStatus.INSTOCK, 100.0));
+
+        FacetedSearchResultDto result = productFacetIndex.search(new FacetQuery("chene", null, null, null, null, 0, 10));
+
+        assertEquals(Map.of("*-10", 0L, "10-100", 2L, "100-*", 2L), asMap(result.getPriceRanges()));
+    }
+
+    @Test
+    void onProductChanged_ArchivedThenRestored_ShouldBeIndexedAgain() {
+        ProductDto chair = product(1L, "Chaise en chêne", "Chairs", InventoryStatus.INSTOCK, 45.0);
+        productFacetIndex.onProductChanged(ProductChangedEvent.archived(chair));
+        productFacetIndex.onProductChanged(ProductChangedEvent.created(chair));
+
+        FacetedSearchResultDto result = productFacetIndex.search(new FacetQuery(null, null, null, null, null, 0, 10));
+
+        assertEquals(List.of(1L, 3L, 2L), result.getProducts().stream().map(ProductDto::getId).toList());
+    }
+
+    @Test
+    void onProductChanged_OlderVersion_ShouldNotOverwriteNewerOne() {
+        ProductDto newer = product(2L, "Chaise pliante", "Chairs", InventoryStatus.OUTOFSTOCK, 9.0);
+        newer.setVersion(5L);
+        ProductDto older = product(2L, "Chaise pliante", "Chairs", InventoryStatus.INSTOCK, 9.0);
+        older.setVersion(4L);
+        productFacetIndex.onProductChanged(ProductChangedEvent.updated(null, newer));
+        productFacetIndex.onProductChanged(ProductChangedEvent.updated(null, older));
+
+        FacetedSearchResultDto result = productFacetIndex.search(new FacetQuery(null, "Chairs", null, null, null, 0, 10));
+
+        assertEquals(Map.of("INSTOCK", 1L, "OUTOFSTOCK", 1L), asMap(result.getInventoryStatuses()));
+    }
+
+    @Test
+    void remove_ManyProducts_ShouldCompactDocumentsKeepingOrder() {
+        for (long id = 100; id < 3100; id++) {
+            productFacetIndex.upsert(product(id, "Tabouret", "Stools", InventoryStatus.INSTOCK, 20.0));
+            productFacetIndex.remove(id);
+        }
+
+        FacetedSearchResultDto result = productFacetIndex.search(new FacetQuery(null, null, null, null, null, 0, 10));
+
+        assertTrue(productFacetIndex.slots() < 2000);
+        assertEquals(List.of(3L, 2L, 1L), result.getProducts().stream().map(ProductDto::getId).toList());
+        assertEquals(Map.of("Chairs", 2L, "Tables", 1L), asMap(result.getCategories()));
+    }
+
+    private static Map<String, Long> asMap(List<FacetCountDto> counts) {
+        return counts.stream().collect(Collectors.toMap(FacetCountDto::getValue, FacetCountDto::getCount));
+    }
+
+    private static ProductDto product(Long id, String name, String category, InventoryStatus status, Double price) {
+        ProductDto productDto = new ProductDto();
+        productDto.setId(id);
+        productDto.setName(name);
+        productDto.setCategory(category);
+        productDto.setInventoryStatus(status.name());
+        productDto.setPrice(price);
+        return productDto;
+    }
+
+}
@@ -0,0 +1,68 @@
+package ma.alten.alten_backend.service;
+
+import ma.alten.alten_backend.repository.ProductArchiveRepository;
+import ma.alten.alten_backend.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ProductImageMigrationTest {
+
+    private static final String LEGACY = "0b5e9c4e-3f1a-4c1e-9d4b-5a0e2f7d8c11_chair.png";
+    private static final String RENAMED = "a".repeat(64) + ".png";
+
+    @Mock
+    private ProductArchiveRepository productArchiveRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductImageService productImageService;
+
+    @InjectMocks
+    private ProductImageMigration productImageMigration;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(productArchiveRepository.findReferencedImages()).thenReturn(Set.of(LEGACY, RENAMED));
+    }
+
+    @Test
+    void migrateLegacyImages_ShouldRenameReferencesBeforeDeletingTheLegacyFile() throws IOException {
+        when(productImageService.adoptLegacyImage(LEGACY)).thenReturn(Optional.of(RENAMED));
+        when(productRepository.findIdsByImage(LEGACY)).thenReturn(List.of(1L, 2L));
+
+        productImageMigration.migrateLegacyImages();
+
+        var inOrder = inOrder(productImageService, productArchiveRepository);
+        inOrder.verify(productImageService).attach(1L, RENAMED);
+        inOrder.verify(productImageService).attach(2L, RENAMED);
+        inOrder.verify(productArchiveRepository).renameImage(LEGACY, RENAMED);
+        inOrder.verify(productImageService).deleteLegacyImage(LEGACY);
+        verify(productImageService, never()).adoptLegacyImage(RENAMED);
+    }
+
+    @Test
+    void migrateLegacyImages_Failure_ShouldKeepTheLegacyFile() throws IOException {
+        when(productImageService.adoptLegacyImage(LEGACY)).thenReturn(Optional.of(RENAMED));
+        when(productRepository.findIdsByImage(LEGACY)).thenReturn(List.of(1L));
+        doThrow(new IllegalStateException("down")).when(productArchiveRepository).renameImage(LEGACY, RENAMED);
+
+        productImageMigration.migrateLegacyImages();
+
+        verify(productImageService, never()).deleteLegacyImage(anyString());
+    }
+
+}
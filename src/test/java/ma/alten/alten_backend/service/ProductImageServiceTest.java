@@ -0,0 +1,197 @@
+package ma.alten.alten_backend.service;
+
+import ma.alten.alten_backend.dto.ProductDto;
+import ma.alten.alten_backend.event.ProductChangedEvent;
+import ma.alten.alten_backend.mapper.ProductMapper;
+import ma.alten.alten_backend.model.Product;
+import ma.alten.alten_backend.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ProductImageServiceTest {
+
+    @TempDir
+    Path storagePath;
+
+    private ProductImageService productImageService;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductMapper productMapper;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        productImageService = new ProductImageService(productRepository, productMapper, transactionManager, eventPublisher,
+                storagePath.toString(), new int[]{40, 400}, 1, 10);
+        when(productMapper.toProductDto(any(Product.class))).thenReturn(new ProductDto());
+    }
+
+    @Test
+    void stage_ShouldCopyUploadToTemporaryFile() throws IOException {
+        byte[] content = png(10, 10);
+
+        ProductImageService.StagedImage stagedImage = productImageService.stage(new MockMultipartFile("imageFile", "chair.png", "image/png", content));
+
+        assertArrayEquals(content, Files.readAllBytes(stagedImage.file()));
+        assertEquals(storagePath.resolve(".tmp"), stagedImage.file().getParent());
+    }
+
+    @Test
+    void process_ShouldStoreImageGenerateVariantsAndAttachIt() throws IOException, InterruptedException {
+        Product product = new Product();
+        product.setId(1L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        ProductImageService.StagedImage stagedImage = productImageService.stage(new MockMultipartFile("imageFile", "chair.png", "image/png", png(100, 50)));
+
+        productImageService.process(1L, stagedImage);
+        productImageService.shutdown();
+
+        assertEquals(stagedImage.sha256() + ".png", product.getImage());
+        assertTrue(Files.exists(storagePath.resolve(product.getImage())));
+        BufferedImage variant = ImageIO.read(storagePath.resolve(ProductImageService.variantFileName(product.getImage(), 40)).toFile());
+        assertEquals(40, variant.getWidth());
+        assertEquals(20, variant.getHeight());
+        assertFalse(Files.exists(storagePath.resolve(ProductImageService.variantFileName(product.getImage(), 400))));
+        assertFalse(Files.exists(stagedImage.file()));
+        verify(eventPublisher).publishEvent(any(ProductChangedEvent.class));
+    }
+
+    @Test
+    void process_ShouldStoreIdenticalUploadsOnce() throws IOException, InterruptedException {
+        Product first = new Product();
+        Product second = new Product();
+        when(productRepository.findById(1L)).thenReturn(Optional.of(first));
+        when(productRepository.findById(2L)).thenReturn(Optional.of(second));
+        byte[] content = png(100, 50);
+
+        productImageService.process(1L, productImageService.stage(new MockMultipartFile("imageFile", "chair.png", "image/png", content)));
+        productImageService.process(2L, productImageService.stage(new MockMultipartFile("imageFile", "CHAIR.PNG", "image/png", content)));
+        productImageService.shutdown();
+
+        assertEquals(first.getImage(), second.getImage());
+        try (var files = Files.list(storagePath)) {
+            // the image, its 40px variant and the temporary directory
+            assertEquals(3, files.count());
+        }
+        try (var files = Files.list(storagePath.resolve(".tmp"))) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void process_ShouldNameImagesAfterTheirDetectedFormat() throws IOException, InterruptedException {
+        Product first = new Product();
+        Product second = new Product();
+        when(productRepository.findById(1L)).thenReturn(Optional.of(first));
+        when(productRepository.findById(2L)).thenReturn(Optional.of(second));
+        byte[] content = jpeg(100, 50);
+
+        productImageService.process(1L, productImageService.stage(new MockMultipartFile("imageFile", "chair.jpeg", "image/jpeg", content)));
+        productImageService.process(2L, productImageService.stage(new MockMultipartFile("imageFile", "chair.png", "image/png", content)));
+        productImageService.shutdown();
+
+        assertTrue(first.getImage().endsWith(".jpg"));
+        assertEquals(first.getImage(), second.getImage());
+    }
+
+    @Test
+    void adoptLegacyImage_ShouldCopyItUnderItsContentHash() throws IOException {
+        String legacy = "0b5e9c4e-3f1a-4c1e-9d4b-5a0e2f7d8c11_chair.png";
+        Files.write(storagePath.resolve(legacy), png(100, 50));
+        Files.setLastModifiedTime(storagePath.resolve(legacy), FileTime.from(Instant.now().minus(Duration.ofDays(30))));
+
+        String renamed = productImageService.adoptLegacyImage(legacy).orElseThrow();
+
+        assertTrue(ProductImageService.isContentAddressed(renamed));
+        assertTrue(renamed.endsWith(".png"));
+        assertArrayEquals(Files.readAllBytes(storagePath.resolve(legacy)), Files.readAllBytes(storagePath.resolve(renamed)));
+        assertTrue(Files.getLastModifiedTime(storagePath.resolve(renamed)).toInstant().isAfter(Instant.now().minus(Duration.ofHours(1))));
+        assertTrue(Files.exists(storagePath.resolve(ProductImageService.variantFileName(renamed, 40))));
+        assertTrue(productImageService.adoptLegacyImage("../" + legacy).isEmpty());
+
+        productImageService.deleteLegacyImage(legacy);
+        assertFalse(Files.exists(storagePath.resolve(legacy)));
+    }
+
+    @Test
+    void findImage_ShouldOnlyResolveStoredContentHashes() throws IOException {
+        String hash = "a".repeat(64);
+        Files.write(storagePath.resolve(hash + ".png"), new byte[]{1});
+        Files.write(storagePath.resolve(hash + "_w40.png"), new byte[]{1});
+
+        assertEquals(Optional.of(storagePath.resolve(hash + ".png")), productImageService.findImage(hash + ".png", null));
+        assertEquals(Optional.of(storagePath.resolve(hash + "_w40.png")), productImageService.findImage(hash + ".png", 40));
+        assertTrue(productImageService.findImage(hash + ".png", 160).isEmpty());
+        assertTrue(productImageService.findImage("../" + hash + ".png", null).isEmpty());
+    }
+
+    @Test
+    void collectOrphans_ShouldDeleteOldUnreferencedImagesWithTheirVariants() throws IOException {
+        String used = "a".repeat(64) + ".png";
+        String orphan = "b".repeat(64) + ".png";
+        String recent = "c".repeat(64) + ".png";
+        Instant old = Instant.now().minus(Duration.ofDays(1));
+        for (String fileName : List.of(used, orphan, "b".repeat(64) + "_w40.png", recent, "c".repeat(64) + "_w40.png")) {
+            Files.write(storagePath.resolve(fileName), new byte[]{1});
+            Files.setLastModifiedTime(storagePath.resolve(fileName), FileTime.from(old));
+        }
+        // uploaded again, its variant is as recent as the image
+        Files.setLastModifiedTime(storagePath.resolve(recent), FileTime.from(Instant.now()));
+        Path abandoned = Files.write(storagePath.resolve(".tmp").resolve("upload-1.part"), new byte[]{1});
+        Files.setLastModifiedTime(abandoned, FileTime.from(old));
+
+        int deleted = productImageService.collectOrphans(Set.of(used), Instant.now().minus(Duration.ofHours(1)));
+
+        assertEquals(3, deleted);
+        assertTrue(Files.exists(storagePath.resolve(used)));
+        assertFalse(Files.exists(storagePath.resolve(orphan)));
+        assertFalse(Files.exists(storagePath.resolve("b".repeat(64) + "_w40.png")));
+        assertTrue(Files.exists(storagePath.resolve("c".repeat(64) + "_w40.png")));
+        assertFalse(Files.exists(abandoned));
+    }
+
+    private static byte[] jpeg(int width, int height) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "jpg", outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png", outputStream);
+        return outputStream.toByteArray();
+    }
+
+}
@@ -0,0 +1,124 @@
+package ma.alten.alten_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import ma.alten.alten_backend.config.Messages;
+import ma.alten.alten_backend.dto.ImportReportDto;
+import ma.alten.alten_backend.dto.ProductDto;
+import ma.alten.alten_backend.event.ProductChangedEvent;
+import ma.alten.alten_backend.exceptions.FunctionalException;
+import ma.alten.alten_backend.mapper.ProductMapper;
+import ma.alten.alten_backend.model.Product;
+import ma.alten.alten_backend.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class ProductImportServiceTest {
+
+    private ProductImportService productImportService;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductMapper productMapper;
+
+    @Mock
+    private ProductCodeAllocator productCodeAllocator;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private Messages messages;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        productImportService = new ProductImportService(productRepository, productMapper, productCodeAllocator,
+                entityManager, transactionManager, new ObjectMapper(), messages, eventPublisher, 2);
+        when(productCodeAllocator.nextCodes(anyInt())).thenAnswer(invocation -> {
+            int count = invocation.getArgument(0);
+            return Collections.nCopies(count, "PRODUCT001");
+        });
+        when(productMapper.toProducts(anyList())).thenAnswer(invocation -> {
+            List<ProductDto> productDtos = invocation.getArgument(0);
+            return productDtos.stream().map(productDto -> new Product()).toList();
+        });
+        when(productRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(productMapper.toProductDto(any(Product.class))).thenReturn(new ProductDto());
+    }
+
+    @Test
+    void importProducts_Csv_ShouldReportRowErrorsPerChunk() throws FunctionalException, IOException {
+        String csv = """
+                name,price,quantity,inventoryStatus
+                Chair,10.5,3,INSTOCK
+                "Table, oak",abc,1,INSTOCK
+                Lamp,5,2,UNKNOWN
+                """;
+
+        ImportReportDto report = productImportService.importProducts(stream(csv), ProductImportService.TEXT_CSV);
+
+        assertEquals(3, report.getTotalRows());
+        assertEquals(1, report.getImportedRows());
+        assertEquals(2, report.getFailedRows());
+        assertEquals(2, report.getChunks().size());
+        assertEquals(3, report.getChunks().get(0).getErrors().get(0).getRowNumber());
+        assertEquals(4, report.getChunks().get(1).getErrors().get(0).getRowNumber());
+        verify(productRepository, times(1)).saveAll(anyList());
+        verify(eventPublisher, times(1)).publishEvent(any(ProductChangedEvent.class));
+    }
+
+    @Test
+    void importProducts_Ndjson_ShouldAssignCodesInBlocks() throws FunctionalException, IOException {
+        String ndjson = """
+                {"name":"Chair","price":10.5}
+                {"name":"Table","price":99}
+                """;
+
+        ImportReportDto report = productImportService.importProducts(stream(ndjson), MediaType.APPLICATION_NDJSON);
+
+        assertEquals(2, report.getImportedRows());
+        verify(productCodeAllocator).nextCodes(2);
+        ArgumentCaptor<List<ProductDto>> captor = ArgumentCaptor.forClass(List.class);
+        verify(productMapper).toProducts(captor.capture());
+        assertTrue(captor.getValue().stream().allMatch(productDto -> "PRODUCT001".equals(productDto.getCode())));
+    }
+
+    @Test
+    void importProducts_UnsupportedFormat_ShouldThrowFunctionalException() {
+        assertThrows(FunctionalException.class,
+                () -> productImportService.importProducts(stream("{}"), MediaType.APPLICATION_XML));
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,119 @@
+package ma.alten.alten_backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ma.alten.alten_backend.dto.ListingRevisionDto;
+import ma.alten.alten_backend.dto.ProductDto;
+import ma.alten.alten_backend.dto.ProductFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductListingCacheTest {
+
+    private static final ProductFilter CATEGORY_FILTER = new ProductFilter(null, null, "Chairs", null, null);
+
+    private ProductListingCache productListingCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        productListingCache = new ProductListingCache(true, 100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void get_SameNormalizedKey_ShouldLoadOnce() {
+        productListingCache.get(new ProductFilter(null, "Oak", null, null, null), 0, 5, true, loader());
+        productListingCache.get(new ProductFilter(null, "oak", null, null, null), 0, 5, true, loader());
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_ConcurrentMisses_ShouldBeCoalesced() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<Page<ProductDto>> slowLoader = () -> {
+            loads.incrementAndGet();
+            awaitQuietly(release);
+            return new PageImpl<>(List.of(new ProductDto()));
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Page<ProductDto>>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> productListingCache.get(CATEGORY_FILTER, 0, 5, true, slowLoader)));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<Page<ProductDto>> future : futures) {
+                assertEquals(1, future.get(5, TimeUnit.SECONDS).getContent().size());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void invalidate_ShouldReloadOnNextGet() {
+        productListingCache.get(CATEGORY_FILTER, 0, 5, true, loader());
+        productListingCache.invalidate();
+        productListingCache.get(CATEGORY_FILTER, 0, 5, true, loader());
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getRevision_ShouldBeCachedUntilInvalidated() {
+        Supplier<ListingRevisionDto> revisionLoader = () -> new ListingRevisionDto(Instant.ofEpochSecond(loads.incrementAndGet()), 1L);
+
+        ListingRevisionDto first = productListingCache.getRevision(CATEGORY_FILTER, revisionLoader);
+        assertEquals(first, productListingCache.getRevision(new ProductFilter(null, null, "Chairs", null, null), revisionLoader));
+        productListingCache.invalidate();
+
+        assertNotEquals(first, productListingCache.getRevision(CATEGORY_FILTER, revisionLoader));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_FailedLoad_ShouldNotBeCached() {
+        assertThrows(IllegalStateException.class, () -> productListingCache.get(CATEGORY_FILTER, 0, 5, true, () -> {
+            throw new IllegalStateException("database down");
+        }));
+        productListingCache.get(CATEGORY_FILTER, 0, 5, true, loader());
+
+        assertEquals(1, loads.get());
+    }
+
+    private Supplier<Page<ProductDto>> loader() {
+        return () -> {
+            loads.incrementAndGet();
+            return new PageImpl<>(List.of(new ProductDto()));
+        };
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
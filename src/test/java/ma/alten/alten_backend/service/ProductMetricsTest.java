@@ -0,0 +1,44 @@
+package ma.alten.alten_backend.service;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ma.alten.alten_backend.dto.ProductFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProductMetrics productMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        productMetrics = new ProductMetrics(meterRegistry, Duration.ofSeconds(1));
+    }
+
+    @Test
+    void time_ShouldTagStageAndFilterCombination() {
+        ProductFilter filter = new ProductFilter(null, null, "Chairs", null, "10-20");
+
+        Long count = productMetrics.time("count", filter, () -> 3L);
+
+        assertEquals(3L, count);
+        Timer timer = meterRegistry.get(ProductMetrics.QUERY_TIMER).tag("stage", "count").tag("filter", "category+priceRange").timer();
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    void time_ShouldRecordFailedOperations() {
+        assertThrows(IllegalStateException.class, () -> productMetrics.time("listing", ProductFilter.NONE, () -> {
+            throw new IllegalStateException("query failed");
+        }));
+
+        assertEquals(1, meterRegistry.get(ProductMetrics.QUERY_TIMER).tag("filter", "none").timer().count());
+    }
+
+}
@@ -0,0 +1,85 @@
+package ma.alten.alten_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ma.alten.alten_backend.dto.ProductChangeDto;
+import ma.alten.alten_backend.enumeration.ProductChangeType;
+import ma.alten.alten_backend.model.ProductOutboxEvent;
+import ma.alten.alten_backend.repository.ProductOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ProductOutboxRelayTest {
+
+    private ProductOutboxRelay productOutboxRelay;
+
+    private InMemoryProductChangeSink sink;
+
+    @Mock
+    private ProductOutboxRepository productOutboxRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        sink = new InMemoryProductChangeSink(10);
+        ProductOutbox productOutbox = new ProductOutbox(productOutboxRepository, new ObjectMapper(), 100);
+        productOutboxRelay = new ProductOutboxRelay(productOutboxRepository, productOutbox, sink, transactionManager, 2, Duration.ofDays(1));
+    }
+
+    @Test
+    void relay_ShouldNumberAfterTheLastPublishedChangeUntilNothingIsPending() {
+        ProductOutboxEvent first = pending(7L);
+        ProductOutboxEvent second = pending(8L);
+        ProductOutboxEvent third = pending(9L);
+        when(productOutboxRepository.findPending(any(Pageable.class)))
+                .thenReturn(List.of(first, second))
+                .thenReturn(List.of(third));
+        when(productOutboxRepository.findLastSequenceNumber()).thenReturn(41L, 43L);
+
+        productOutboxRelay.relay();
+
+        assertEquals(42L, first.getSequenceNumber());
+        assertEquals(43L, second.getSequenceNumber());
+        assertEquals(44L, third.getSequenceNumber());
+        assertNotNull(third.getPublishedAt());
+        assertEquals(List.of(42L, 43L, 44L), sink.published().stream().map(ProductChangeDto::getSequenceNumber).toList());
+        verify(productOutboxRepository, times(2)).findPending(any(Pageable.class));
+    }
+
+    @Test
+    void relay_WhenSinkFails_ShouldPropagateSoTheBatchIsRolledBack() {
+        ProductChangeSink failingSink = changes -> {
+            throw new IllegalStateException("sink unavailable");
+        };
+        productOutboxRelay = new ProductOutboxRelay(productOutboxRepository, new ProductOutbox(productOutboxRepository, new ObjectMapper(), 100),
+                failingSink, transactionManager, 2, Duration.ofDays(1));
+        when(productOutboxRepository.findPending(any(Pageable.class))).thenReturn(List.of(pending(1L)));
+
+        assertThrows(IllegalStateException.class, () -> productOutboxRelay.relay());
+        verify(transactionManager).rollback(any());
+    }
+
+    private static ProductOutboxEvent pending(long id) {
+        return ProductOutboxEvent.builder()
+                .id(id)
+                .productId(id)
+                .type(ProductChangeType.UPDATED)
+                .createdAt(Instant.now())
+                .build();
+    }
+
+}
@@ -0,0 +1,104 @@
+package ma.alten.alten_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import ma.alten.alten_backend.dto.ProductChangeFeedDto;
+import ma.alten.alten_backend.dto.ProductDto;
+import ma.alten.alten_backend.enumeration.ProductChangeType;
+import ma.alten.alten_backend.event.ProductChangedEvent;
+import ma.alten.alten_backend.model.ProductOutboxEvent;
+import ma.alten.alten_backend.repository.ProductOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ProductOutboxTest {
+
+    private ProductOutbox productOutbox;
+
+    @Mock
+    private ProductOutboxRepository productOutboxRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        productOutbox = new ProductOutbox(productOutboxRepository, objectMapper, 2);
+    }
+
+    @Test
+    void onProductChanged_ShouldAppendTheStateAfterTheChange() {
+        ProductDto after = ProductDto.builder().id(1L).name("Produit Test").build();
+
+        productOutbox.onProductChanged(ProductChangedEvent.created(after));
+
+        ArgumentCaptor<ProductOutboxEvent> captor = ArgumentCaptor.forClass(ProductOutboxEvent.class);
+        verify(productOutboxRepository).save(captor.capture());
+        assertEquals(1L, captor.getValue().getProductId());
+        assertEquals(ProductChangeType.CREATED, captor.getValue().getType());
+        assertTrue(captor.getValue().getPayload().contains("Produit Test"));
+        assertNull(captor.getValue().getSequenceNumber());
+    }
+
+    @Test
+    void onProductChanged_ShouldAppendDeletionWithoutState() {
+        productOutbox.onProductChanged(ProductChangedEvent.deleted(1L, null));
+
+        ArgumentCaptor<ProductOutboxEvent> captor = ArgumentCaptor.forClass(ProductOutboxEvent.class);
+        verify(productOutboxRepository).save(captor.capture());
+        assertEquals(ProductChangeType.DELETED, captor.getValue().getType());
+        assertNull(captor.getValue().getPayload());
+    }
+
+    @Test
+    void changesSince_ShouldReturnNextTokenAndCapTheLimit() {
+        when(productOutboxRepository.findPublishedAfter(eq(3L), any(Pageable.class))).thenReturn(List.of(
+                published(4L, "{\"id\":1}"), published(5L, null)));
+        when(productOutboxRepository.findFirstSequenceNumber()).thenReturn(1L);
+
+        ProductChangeFeedDto feed = productOutbox.changesSince(3L, 100);
+
+        assertEquals(2, feed.changes().size());
+        assertEquals(1L, feed.changes().get(0).getProduct().getId());
+        assertNull(feed.changes().get(1).getProduct());
+        assertEquals(5L, feed.nextToken());
+        assertFalse(feed.truncated());
+        verify(productOutboxRepository).findPublishedAfter(eq(3L), argThat(pageable -> pageable.getPageSize() == 2));
+    }
+
+    @Test
+    void changesSince_ShouldReportPurgedChanges() {
+        when(productOutboxRepository.findPublishedAfter(eq(0L), any(Pageable.class))).thenReturn(List.of());
+        when(productOutboxRepository.findFirstSequenceNumber()).thenReturn(10L);
+
+        ProductChangeFeedDto feed = productOutbox.changesSince(0L, 100);
+
+        assertEquals(0L, feed.nextToken());
+        assertTrue(feed.truncated());
+    }
+
+    private static ProductOutboxEvent published(long sequenceNumber, String payload) {
+        return ProductOutboxEvent.builder()
+                .id(sequenceNumber)
+                .productId(1L)
+                .type(ProductChangeType.UPDATED)
+                .payload(payload)
+                .createdAt(Instant.now())
+                .sequenceNumber(sequenceNumber)
+                .publishedAt(Instant.now())
+                .build();
+    }
+
+}
@@ -1,19 +1,38 @@
 package ma.alten.alten_backend.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ma.alten.alten_backend.config.Messages;
 import ma.alten.alten_backend.dto.ProductDto;
+import ma.alten.alten_backend.dto.ProductFilter;
 import ma.alten.alten_backend.enumeration.InventoryStatus;
+import ma.alten.alten_backend.event.ProductChangedEvent;
+import ma.alten.alten_backend.exceptions.FunctionalException;
+import ma.alten.alten_backend.exceptions.InvalidRequestException;
+import ma.alten.alten_backend.exceptions.PreconditionFailedException;
 import ma.alten.alten_backend.exceptions.TechnicalException;
 import ma.alten.alten_backend.mapper.ProductMapper;
 import ma.alten.alten_backend.model.Product;
 import ma.alten.alten_backend.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -30,6 +49,27 @@ class ProductServiceTest {
     @Mock
     private ProductMapper productMapper;
 
+    @Mock
+    private ProductCodeAllocator productCodeAllocator;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ProductImageService productImageService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private Messages messages;
+
+    @Spy
+    private ProductMetrics productMetrics = new ProductMetrics(new SimpleMeterRegistry(), Duration.ofSeconds(1));
+
+    @Spy
+    private ProductListingCache productListingCache = new ProductListingCache(false, 10, Duration.ofSeconds(1), new SimpleMeterRegistry());
+
     private ProductDto productDto;
     private Product product;
 
@@ -45,7 +85,7 @@ class ProductServiceTest {
         product = new Product();
         product.setId(1L);
         product.setName("Produit Test");
-        product.setCategory("Category Test");
+        product.setCategoryId(1);
         product.setPrice(10.0);
     }
 
@@ -53,6 +93,7 @@ class ProductServiceTest {
     void addProduct_ShouldReturnProductDto() throws IOException {
         MockMultipartFile imageFile = new MockMultipartFile("imageFile", "image.jpg", "image/jpeg", new byte[0]);
 
+        when(productCodeAllocator.nextCode()).thenReturn("PRODUCT001");
         when(productMapper.toProduct(productDto)).thenReturn(product);
         when(productRepository.save(product)).thenReturn(product);
         when(productMapper.toProductDto(product)).thenReturn(productDto);
@@ -60,12 +101,32 @@ class ProductServiceTest {
         ProductDto result = productService.addProduct(productDto, imageFile);
 
         assertEquals(productDto, result);
+        assertEquals("PRODUCT001", productDto.getCode());
         verify(productRepository).save(product);
     }
 
+    @Test
+    void addProduct_WithImage_ShouldProcessImageAfterSave() throws IOException {
+        MockMultipartFile imageFile = new MockMultipartFile("imageFile", "image.jpg", "image/jpeg", new byte[]{1, 2, 3});
+        ProductImageService.StagedImage stagedImage = new ProductImageService.StagedImage(Path.of("upload.part"), "image.jpg", "0".repeat(64));
+
+        when(productImageService.stage(imageFile)).thenReturn(stagedImage);
+        when(productCodeAllocator.nextCode()).thenReturn("PRODUCT001");
+        when(productMapper.toProduct(productDto)).thenReturn(product);
+        when(productRepository.save(product)).thenReturn(product);
+        when(productMapper.toProductDto(product)).thenReturn(productDto);
+
+        productService.addProduct(productDto, imageFile);
+
+        InOrder inOrder = inOrder(productImageService, productRepository);
+        inOrder.verify(productImageService).stage(imageFile);
+        inOrder.verify(productRepository).save(product);
+        inOrder.verify(productImageService).process(1L, stagedImage);
+    }
+
     @Test
     void getProductById_ShouldReturnProductDto() throws TechnicalException {
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.findReadOnlyById(1L)).thenReturn(Optional.of(product));
         when(productMapper.toProductDto(product)).thenReturn(productDto);
 
         ProductDto result = productService.getProductById(1L);
@@ -74,10 +135,32 @@ class ProductServiceTest {
     }
 
     @Test
-    void updateProduct_ShouldReturnUpdatedProductDto() throws TechnicalException {
+    void getAllProducts_WithoutTotal_ShouldNotRunCountQuery() {
+        when(productRepository.findSliceWithDeletedIsFalse(any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(product), PageRequest.of(0, 1), true));
+        when(productMapper.toProductDto(product)).thenReturn(productDto);
+
+        Page<ProductDto> result = productService.getAllProducts(0, 1, null, null, null, null, null, false);
+
+        assertEquals(1, result.getContent().size());
+        assertTrue(result.hasNext());
+        verify(productRepository, never()).findAllWithDeletedIsFalse(any(Pageable.class));
+    }
+
+    @Test
+    void getProductsAfter_SizeOutOfRange_ShouldBeRejected() {
+        ProductFilter filter = new ProductFilter(null, null, null, null, null);
+
+        assertThrows(InvalidRequestException.class, () -> productService.getProductsAfter(null, 0, filter));
+        assertThrows(InvalidRequestException.class, () -> productService.getProductsAfter(null, -1, filter));
+        assertThrows(InvalidRequestException.class, () -> productService.getProductsAfter(null, 1001, filter));
+    }
+
+    @Test
+    void updateProduct_ShouldReturnUpdatedProductDto() throws TechnicalException, FunctionalException {
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
 
-        when(productRepository.save(any(Product.class))).thenReturn(product);
+        when(productRepository.saveAndFlush(any(Product.class))).thenReturn(product);
 
         productDto.setInventoryStatus(String.valueOf(InventoryStatus.INSTOCK));
 
@@ -86,15 +169,49 @@ class ProductServiceTest {
         ProductDto result = productService.updateProduct(1L, productDto);
 
         assertEquals(productDto, result);
-        verify(productRepository).save(product);
+        verify(productRepository).saveAndFlush(product);
+        verify(eventPublisher).publishEvent(any(ProductChangedEvent.class));
+    }
+
+    @Test
+    void updateProduct_WithStaleVersion_ShouldFailPrecondition() {
+        product.setVersion(5L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+
+        assertThrows(PreconditionFailedException.class, () -> productService.updateProduct(1L, productDto, 4L));
+
+        verify(productRepository, never()).saveAndFlush(any(Product.class));
+        verifyNoInteractions(eventPublisher);
     }
 
 
     @Test
     void deleteProductPhysical_ShouldNotThrowException() throws TechnicalException {
-        doNothing().when(productRepository).deleteById(1L);
+        when(productRepository.deletePhysically(1L)).thenReturn(1);
 
         assertDoesNotThrow(() -> productService.deleteProductPhysical(1L));
+        verify(eventPublisher).publishEvent(any(ProductChangedEvent.class));
+    }
+
+    @Test
+    void deleteProductPhysical_WhenNothingDeleted_ShouldNotPublish() throws TechnicalException {
+        when(productRepository.deletePhysically(1L)).thenReturn(0);
+
+        productService.deleteProductPhysical(1L);
+
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void getArchivedProducts_ShouldMapArchivedPage() {
+        product.setDeleted(true);
+        when(productRepository.findArchived(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(product), PageRequest.of(0, 5), 1));
+        when(productMapper.toProductDto(product)).thenReturn(productDto);
+
+        Page<ProductDto> result = productService.getArchivedProducts(0, 5);
+
+        assertEquals(List.of(productDto), result.getContent());
+        assertEquals(1, result.getTotalElements());
     }
 
     @Test
@@ -0,0 +1,149 @@
+package ma.alten.alten_backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ma.alten.alten_backend.dto.ProductAggregateDto;
+import ma.alten.alten_backend.dto.ProductDto;
+import ma.alten.alten_backend.dto.ProductStatisticsDto;
+import ma.alten.alten_backend.dto.ProductStockGroupDto;
+import ma.alten.alten_backend.enumeration.InventoryStatus;
+import ma.alten.alten_backend.event.ProductChangedEvent;
+import ma.alten.alten_backend.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProductStatisticsTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProductStatistics productStatistics;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        productStatistics = new ProductStatistics(productRepository, transactionManager, meterRegistry);
+        when(productRepository.findStockGroups()).thenReturn(List.of(
+                new ProductStockGroupDto("Chairs", InventoryStatus.INSTOCK, 1L, 20L, 900.0),
+                new ProductStockGroupDto("Chairs", InventoryStatus.LOWSTOCK, 1L, 5L, 47.5),
+                new ProductStockGroupDto("Tables", InventoryStatus.INSTOCK, 1L, 2L, 500.0)));
+        productStatistics.initialize();
+    }
+
+    @Test
+    void initialize_ShouldAggregatePerCategoryAndInventoryStatus() {
+        ProductStatisticsDto statistics = productStatistics.getStatistics();
+
+        assertAggregate(statistics.getTotal(), 3, 27, "1447.5");
+        Map<String, ProductAggregateDto> categories = byValue(statistics.getCategories());
+        assertEquals(List.of("Chairs", "Tables"), statistics.getCategories().stream().map(ProductAggregateDto::getValue).toList());
+        assertAggregate(categories.get("Chairs"), 2, 25, "947.5");
+        assertAggregate(categories.get("Tables"), 1, 2, "500.0");
+        assertAggregate(byValue(statistics.getInventoryStatuses()).get("INSTOCK"), 2, 22, "1400.0");
+        assertAggregate(byValue(statistics.getInventoryStatuses()).get("LOWSTOCK"), 1, 5, "47.5");
+        assertNotNull(statistics.getReconciledAt());
+    }
+
+    @Test
+    void onProductChanged_ShouldApplyDeltaFromPreviousContribution() {
+        productStatistics.onProductChanged(ProductChangedEvent.updated(product(2L, "Chairs", "LOWSTOCK", 5, 9.5),
+                product(2L, "Chairs", "OUTOFSTOCK", 0, 9.5)));
+        productStatistics.onProductChanged(ProductChangedEvent.updated(product(3L, "Tables", "INSTOCK", 2, 250.0),
+                product(3L, "Desks", "INSTOCK", 2, 250.0)));
+
+        ProductStatisticsDto statistics = productStatistics.getStatistics();
+        assertAggregate(statistics.getTotal(), 3, 22, "1400.0");
+        Map<String, ProductAggregateDto> categories = byValue(statistics.getCategories());
+        assertAggregate(categories.get("Chairs"), 2, 20, "900.0");
+        assertAggregate(categories.get("Desks"), 1, 2, "500.0");
+        assertFalse(categories.containsKey("Tables"));
+        Map<String, ProductAggregateDto> statuses = byValue(statistics.getInventoryStatuses());
+        assertFalse(statuses.containsKey("LOWSTOCK"));
+        assertAggregate(statuses.get("OUTOFSTOCK"), 1, 0, "0");
+    }
+
+    @Test
+    void onProductChanged_CreatedThenDeleted_ShouldRestoreTotals() {
+        productStatistics.onProductChanged(ProductChangedEvent.created(product(4L, "Chairs", "INSTOCK", 10, 30.0)));
+        assertAggregate(productStatistics.getStatistics().getTotal(), 4, 37, "1747.5");
+
+        productStatistics.onProductChanged(ProductChangedEvent.archived(product(4L, "Chairs", "INSTOCK", 10, 30.0)));
+        productStatistics.onProductChanged(ProductChangedEvent.deleted(1L, product(1L, "Chairs", "INSTOCK", 20, 45.0)));
+        // an archived product leaves nothing to remove
+        productStatistics.onProductChanged(ProductChangedEvent.deleted(99L, null));
+
+        ProductStatisticsDto statistics = productStatistics.getStatistics();
+        assertAggregate(statistics.getTotal(), 2, 7, "547.5");
+        assertAggregate(byValue(statistics.getCategories()).get("Chairs"), 1, 5, "47.5");
+    }
+
+    @Test
+    void reconcile_ShouldCorrectAndCountDriftedGroups() {
+        when(productRepository.findStockGroups()).thenReturn(List.of(
+                new ProductStockGroupDto("Chairs", InventoryStatus.INSTOCK, 1L, 20L, 900.0),
+                new ProductStockGroupDto("Chairs", InventoryStatus.LOWSTOCK, 1L, 5L, 47.5),
+                new ProductStockGroupDto("Tables", InventoryStatus.INSTOCK, 1L, 7L, 1750.0)));
+
+        // total, Tables and INSTOCK
+        assertEquals(3, productStatistics.reconcile());
+        assertAggregate(byValue(productStatistics.getStatistics().getCategories()).get("Tables"), 1, 7, "1750.0");
+        assertEquals(3, meterRegistry.get("product.statistics.drift").counter().count());
+
+        assertEquals(0, productStatistics.reconcile());
+    }
+
+    @Test
+    void reconcile_ChangeCommittedDuringRead_ShouldRetry() {
+        ProductDto created = product(4L, "Chairs", "INSTOCK", 10, 30.0);
+        List<ProductStockGroupDto> withCreated = List.of(
+                new ProductStockGroupDto("Chairs", InventoryStatus.INSTOCK, 2L, 30L, 1200.0),
+                new ProductStockGroupDto("Chairs", InventoryStatus.LOWSTOCK, 1L, 5L, 47.5),
+                new ProductStockGroupDto("Tables", InventoryStatus.INSTOCK, 1L, 2L, 500.0));
+        when(productRepository.findStockGroups()).thenAnswer(invocation -> {
+            productStatistics.onProductChanged(ProductChangedEvent.created(created));
+            return withCreated;
+        }).thenReturn(withCreated);
+
+        // the first read cannot tell whether it includes the creation, the second one does
+        assertEquals(0, productStatistics.reconcile());
+        verify(productRepository, times(3)).findStockGroups();
+        assertAggregate(productStatistics.getStatistics().getTotal(), 4, 37, "1747.5");
+    }
+
+    private static void assertAggregate(ProductAggregateDto aggregate, long productCount, long totalQuantity, String stockValue) {
+        assertNotNull(aggregate);
+        assertEquals(productCount, aggregate.getProductCount());
+        assertEquals(totalQuantity, aggregate.getTotalQuantity());
+        assertEquals(0, new BigDecimal(stockValue).compareTo(aggregate.getStockValue()), aggregate.getStockValue() + " != " + stockValue);
+    }
+
+    private static Map<String, ProductAggregateDto> byValue(List<ProductAggregateDto> aggregates) {
+        return aggregates.stream().collect(Collectors.toMap(ProductAggregateDto::getValue, aggregate -> aggregate));
+    }
+
+    private static ProductDto product(Long id, String category, String inventoryStatus, int quantity, double price) {
+        ProductDto product = new ProductDto();
+        product.setId(id);
+        product.setCategory(category);
+        product.setInventoryStatus(inventoryStatus);
+        product.setQuantity(quantity);
+        product.setPrice(price);
+        return product;
+    }
+
+}
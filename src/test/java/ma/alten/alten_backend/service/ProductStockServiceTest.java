@@ -0,0 +1,88 @@
+package ma.alten.alten_backend.service;
+
+import ma.alten.alten_backend.config.Messages;
+import ma.alten.alten_backend.dto.ProductDto;
+import ma.alten.alten_backend.event.ProductChangedEvent;
+import ma.alten.alten_backend.exceptions.InsufficientStockException;
+import ma.alten.alten_backend.exceptions.TechnicalException;
+import ma.alten.alten_backend.mapper.ProductMapper;
+import ma.alten.alten_backend.model.Product;
+import ma.alten.alten_backend.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class ProductStockServiceTest {
+
+    private ProductStockService productStockService;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductMapper productMapper;
+
+    @Mock
+    private Messages messages;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        productStockService = new ProductStockService(productRepository, productMapper, messages, eventPublisher, 10);
+    }
+
+    @Test
+    void adjustQuantity_ShouldPublishPreviousAndAdjustedStates() throws TechnicalException, InsufficientStockException {
+        Product locked = new Product();
+        Product product = new Product();
+        ProductDto before = new ProductDto();
+        before.setId(1L);
+        before.setQuantity(5);
+        ProductDto productDto = new ProductDto();
+        productDto.setId(1L);
+        productDto.setQuantity(2);
+        when(productRepository.findLockedById(1L)).thenReturn(Optional.of(locked));
+        when(productRepository.adjustQuantity(eq(1L), eq(-3), eq(10), any(Instant.class))).thenReturn(1);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productMapper.toProductDto(locked)).thenReturn(before);
+        when(productMapper.toProductDto(product)).thenReturn(productDto);
+
+        ProductDto result = productStockService.adjustQuantity(1L, -3);
+
+        assertEquals(productDto, result);
+        verify(eventPublisher).publishEvent(ProductChangedEvent.updated(before, productDto));
+    }
+
+    @Test
+    void adjustQuantity_BelowZero_ShouldFail() {
+        when(productRepository.findLockedById(1L)).thenReturn(Optional.of(new Product()));
+        when(productMapper.toProductDto(any(Product.class))).thenReturn(new ProductDto());
+        when(productRepository.adjustQuantity(anyLong(), anyInt(), anyInt(), any(Instant.class))).thenReturn(0);
+
+        assertThrows(InsufficientStockException.class, () -> productStockService.adjustQuantity(1L, -3));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void adjustQuantity_UnknownProduct_ShouldFail() {
+        when(productRepository.findLockedById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(TechnicalException.class, () -> productStockService.adjustQuantity(1L, -3));
+        verify(productRepository, never()).adjustQuantity(anyLong(), anyInt(), anyInt(), any(Instant.class));
+    }
+
+}